@@ -0,0 +1,76 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.api;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Base {@link PushHealthIndicator} which keeps the current {@link Health} and informs listeners whenever 
+ * a subclass calls {@link #publish(Health)}.
+ * 
+ * <pre>
+ * public class ConnectionPoolHealthIndicator extends AbstractPushHealthIndicator {
+ *     {@literal @}Inject
+ *     public ConnectionPoolHealthIndicator(ConnectionPool pool) {
+ *         super(Health.unhealthy().withDetail("state", "starting").build());
+ *         pool.onStateChange(state -{@literal >} publish(state == State.OPEN 
+ *                  ? Health.healthy().build() 
+ *                  : Health.unhealthy().withDetail("state", state).build()));
+ *     }
+ * }
+ * </pre>
+ */
+public abstract class AbstractPushHealthIndicator implements PushHealthIndicator {
+
+    private final List<HealthIndicatorCallback> listeners = new CopyOnWriteArrayList<>();
+    private volatile Health health;
+
+    protected AbstractPushHealthIndicator(Health initialHealth) {
+        if (initialHealth == null) {
+            throw new IllegalArgumentException("Health must not be null");
+        }
+        this.health = initialHealth;
+    }
+
+    /**
+     * Set the current {@link Health} and inform all listeners of it.
+     */
+    protected void publish(Health health) {
+        if (health == null) {
+            throw new IllegalArgumentException("Health must not be null");
+        }
+        this.health = health;
+        for (HealthIndicatorCallback listener : listeners) {
+            listener.inform(health);
+        }
+    }
+
+    @Override
+    public Health getHealth() {
+        return health;
+    }
+
+    @Override
+    public void addListener(HealthIndicatorCallback listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(HealthIndicatorCallback listener) {
+        listeners.remove(listener);
+    }
+}
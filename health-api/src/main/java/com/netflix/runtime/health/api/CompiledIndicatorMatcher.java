@@ -0,0 +1,207 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * {@link IndicatorMatcher} compiled from a set of include and exclude rules. Within each set, exact names are
+ * looked up in a hash set, package prefixes are matched by a single walk of a prefix trie, globs and regular 
+ * expressions are combined into one alternation {@link Pattern}, and tags are looked up in a hash set. The 
+ * alternation is evaluated by the backtracking {@link java.util.regex.Matcher}, so its cost depends on the patterns.
+ * 
+ * Results are memoized, so repeated matching of the same indicators costs a single map lookup and patterns stay 
+ * off the hot path. Without tag rules results are memoized per indicator name, with tag rules per indicator 
+ * instance, as indicators of the same class share their default name but not necessarily their tags.
+ */
+final class CompiledIndicatorMatcher implements IndicatorMatcher {
+    
+    static final String GLOB = "glob:";
+    static final String REGEX = "regex:";
+    static final String PACKAGE = "package:";
+    static final String TAG = "tag:";
+    
+    private static final int MAX_MEMOIZED = 10_000;
+    
+    private final Rules included;
+    private final Rules excluded;
+    private final ConcurrentMap<Object, Boolean> memoized;
+    private final boolean memoizedByName;
+
+    CompiledIndicatorMatcher(Collection<String> includedRules, Collection<String> excludedRules) {
+        this.included = new Rules(includedRules);
+        this.excluded = new Rules(excludedRules);
+        this.memoized = new ConcurrentHashMap<>();
+        this.memoizedByName = !included.hasTags() && !excluded.hasTags();
+    }
+    
+    /**
+     * @return true if any of the rules uses a pattern, package prefix or tag rather than an exact name
+     */
+    static boolean requiresCompilation(Collection<String> rules) {
+        return rules.stream().anyMatch(rule -> rule.startsWith(GLOB) || rule.startsWith(REGEX) 
+                || rule.startsWith(PACKAGE) || rule.startsWith(TAG));
+    }
+
+    @Override
+    public boolean matches(HealthIndicator indicator) {
+        String name = indicator.getName();
+        Object key = memoizedByName ? name : indicator;
+        Boolean result = memoized.get(key);
+        if (result == null) {
+            result = matches(name, indicator);
+            if (memoized.size() < MAX_MEMOIZED) {
+                memoized.putIfAbsent(key, result);
+            }
+        }
+        return result;
+    }
+    
+    private boolean matches(String name, HealthIndicator indicator) {
+        return !excluded.matches(name, indicator) && (included.isEmpty() || included.matches(name, indicator));
+    }
+
+    private static class Rules {
+        private final Set<String> names = new HashSet<>();
+        private final Set<String> tags = new HashSet<>();
+        private final PrefixTrie packages = new PrefixTrie();
+        private final Pattern pattern;
+        private final boolean empty;
+        
+        Rules(Collection<String> rules) {
+            List<String> patterns = new ArrayList<>();
+            for (String rule : rules) {
+                if (rule.startsWith(GLOB)) {
+                    patterns.add(globToRegex(rule.substring(GLOB.length())));
+                } else if (rule.startsWith(REGEX)) {
+                    patterns.add(rule.substring(REGEX.length()));
+                } else if (rule.startsWith(PACKAGE)) {
+                    String pkg = rule.substring(PACKAGE.length());
+                    packages.add(pkg.endsWith(".") ? pkg : pkg + ".");
+                } else if (rule.startsWith(TAG)) {
+                    tags.add(rule.substring(TAG.length()));
+                } else {
+                    names.add(rule);
+                }
+            }
+            this.pattern = patterns.isEmpty() ? null 
+                    : Pattern.compile(patterns.stream().map(p -> "(?:" + p + ")").collect(Collectors.joining("|")));
+            this.empty = rules.isEmpty();
+        }
+        
+        boolean isEmpty() {
+            return empty;
+        }
+        
+        boolean hasTags() {
+            return !tags.isEmpty();
+        }
+        
+        boolean matches(String name, HealthIndicator indicator) {
+            if (names.contains(name) || packages.matchesPrefixOf(name)) {
+                return true;
+            }
+            if (!tags.isEmpty()) {
+                for (String tag : indicator.getTags()) {
+                    if (tags.contains(tag)) {
+                        return true;
+                    }
+                }
+            }
+            return pattern != null && pattern.matcher(name).matches();
+        }
+        
+        private static String globToRegex(String glob) {
+            StringBuilder regex = new StringBuilder();
+            StringBuilder literal = new StringBuilder();
+            for (char c : glob.toCharArray()) {
+                if (c == '*' || c == '?') {
+                    if (literal.length() > 0) {
+                        regex.append(Pattern.quote(literal.toString()));
+                        literal.setLength(0);
+                    }
+                    regex.append(c == '*' ? ".*" : ".");
+                } else {
+                    literal.append(c);
+                }
+            }
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+            }
+            return regex.toString();
+        }
+    }
+
+    /**
+     * Character trie answering whether any inserted prefix is a prefix of a given string.
+     */
+    private static class PrefixTrie {
+        private char[] keys = new char[0];
+        private PrefixTrie[] children = new PrefixTrie[0];
+        private boolean terminal;
+        
+        void add(String prefix) {
+            PrefixTrie node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.childFor(prefix.charAt(i));
+            }
+            node.terminal = true;
+        }
+        
+        boolean matchesPrefixOf(String value) {
+            PrefixTrie node = this;
+            for (int i = 0; node != null; i++) {
+                if (node.terminal) {
+                    return true;
+                }
+                if (i == value.length()) {
+                    return false;
+                }
+                int index = Arrays.binarySearch(node.keys, value.charAt(i));
+                node = index >= 0 ? node.children[index] : null;
+            }
+            return false;
+        }
+        
+        private PrefixTrie childFor(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertion = -(index + 1);
+            char[] newKeys = new char[keys.length + 1];
+            PrefixTrie[] newChildren = new PrefixTrie[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertion);
+            System.arraycopy(children, 0, newChildren, 0, insertion);
+            System.arraycopy(keys, insertion, newKeys, insertion + 1, keys.length - insertion);
+            System.arraycopy(children, insertion, newChildren, insertion + 1, children.length - insertion);
+            newKeys[insertion] = c;
+            newChildren[insertion] = new PrefixTrie();
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[insertion];
+        }
+    }
+}
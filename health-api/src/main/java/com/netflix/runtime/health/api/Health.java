@@ -16,41 +16,83 @@
 
 package com.netflix.runtime.health.api;
 
-import java.util.LinkedHashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 /**
  * Immutable health check instance returned from a {@link HealthIndicator}
  * 
  * This may be one of {@link Health}.healthy() or {@link Health}.unhealthy().
  * Additional details may be provided (ex. {@link Health}.unhealthy(exception).withDetails(...) 
+ * 
+ * Each instance has an {@link Outcome} describing how it was obtained, which defaults to {@link Outcome#HEALTHY} or
+ * {@link Outcome#UNHEALTHY}. 
+ * 
+ * Instances without details and with the default outcome are shared. Details are stored as an immutable chain of entries, so 
+ * that {@link Health}.from(health).withDetail(...) adds a detail without copying or modifying the 
+ * details of the original instance.
  */
 public final class Health {
 	
     public static final String ERROR_KEY = "error";
     public static final String CACHE_KEY = "cached";
     public static final String NAME_KEY = "className";
+    public static final String SKIPPED_KEY = "skipped";
+    
+    private static final Health HEALTHY = new Health(true, Outcome.HEALTHY, Details.EMPTY);
+    private static final Health UNHEALTHY = new Health(false, Outcome.UNHEALTHY, Details.EMPTY);
+    
+    /**
+     * How a {@link Health} was obtained.
+     */
+    public enum Outcome {
+        /**
+         * Reported healthy by the {@link HealthIndicator}.
+         */
+        HEALTHY,
+        /**
+         * Reported unhealthy by the {@link HealthIndicator}.
+         */
+        UNHEALTHY,
+        /**
+         * The {@link HealthIndicator} failed with an exception.
+         */
+        ERROR,
+        /**
+         * The {@link HealthIndicator} didn't respond in time.
+         */
+        TIMEOUT,
+        /**
+         * Not reported because the {@link HealthCheckAggregator} didn't invoke the {@link HealthIndicator}, or didn't
+         * wait for its response, as the overall health was already decided. See {@link Health#SKIPPED_KEY}.
+         */
+        SKIPPED,
+        /**
+         * Suppressed by an {@link IndicatorMatcher}, and so not affecting the overall health.
+         */
+        SUPPRESSED,
+        /**
+         * Cached from a previous invocation of the {@link HealthIndicator}.
+         */
+        CACHED
+    }
     
-	private final Map<String, Object> details;
+	private final Details details;
 	private final boolean isHealthy;
+	private final Outcome outcome;
 	
-	private Health(boolean isHealthy) {
-		this.isHealthy=isHealthy;
-		this.details = new LinkedHashMap<>();
-	}
-	
-	private Health(boolean isHealthy, Map<String, Object> details) {
+	private Health(boolean isHealthy, Outcome outcome, Details details) {
 		this.isHealthy = isHealthy;
-		this.details = new LinkedHashMap<>(details);
-	}
-	
-	private Health(Health health) {
-		this.isHealthy = health.isHealthy();
-		this.details = health.getDetails();
+		this.outcome = outcome;
+		this.details = details;
 	}
 
 	/**
-     * @return Map of named attributes that provide additional information regarding the health.
+     * @return Unmodifiable map of named attributes that provide additional information regarding the health.
      * For example, a CPU health check may return Unhealthy with attribute "usage"="90%"
      */
     public Map<String, Object> getDetails() {
@@ -64,6 +106,13 @@ public final class Health {
     	return this.isHealthy;
     }
 
+    /**
+     * @return How this health was obtained.
+     */
+    public Outcome getOutcome() {
+        return this.outcome;
+    }
+
 	public Optional<String> getErrorMessage() {
 		return Optional.ofNullable((String) getDetails().get(ERROR_KEY));
 	}
@@ -73,7 +122,7 @@ public final class Health {
 	 * @return a new {@link Builder} instance
 	 */
 	public static Builder healthy() {
-		return from(new Health(true));
+		return from(HEALTHY);
 	}
 
 	/**
@@ -91,11 +140,12 @@ public final class Health {
 	 * @return a new {@link Builder} instance
 	 */
 	public static Builder unhealthy() {
-		return from(new Health(false));
+		return from(UNHEALTHY);
 	}
 
 	/**
-	 * Create a new {@link Builder} instance with a specific {@link Health}.
+	 * Create a new {@link Builder} instance with a specific {@link Health}. The provided
+	 * {@link Health} is not modified by the {@link Builder}.
 	 * @param health the health
 	 * @return a new {@link Builder} instance
 	 */
@@ -109,7 +159,8 @@ public final class Health {
 	public static class Builder {
 
 		private final boolean isHealthy;
-		private final Map<String, Object> details;
+		private Outcome outcome;
+		private Details details;
 
 		/**
 		 * Create new Builder instance using a {@link Health}
@@ -118,7 +169,8 @@ public final class Health {
 		private Builder(Health health) {
 			assertNotNull(health, "Health must not be null");
 			this.isHealthy = health.isHealthy();
-			this.details = health.getDetails();
+			this.outcome = health.outcome;
+			this.details = health.details;
 		}
 
 		/**
@@ -128,7 +180,7 @@ public final class Health {
 		 */
 		public Builder withException(Throwable ex) {
 			assertNotNull(ex, "Exception must not be null");
-			this.details.put(ERROR_KEY, ex.getClass().getName() + ": " + ex.getMessage());
+			this.details = this.details.with(ERROR_KEY, ex.getClass().getName() + ": " + ex.getMessage());
 			return this;
 		}
 
@@ -142,16 +194,180 @@ public final class Health {
 			assertNotNull(key, "Key must not be null");
 			assertNotNull(data, "Data must not be null");
 			assertNotReservedKey(key, "\""+key+"\" is a reserved key and may not be overridden");
-			this.details.put(key, data);
+			this.details = this.details.with(key, data);
+			return this;
+		}
+
+		/**
+		 * Record how the health was obtained. {@link Outcome#HEALTHY} may only be used for healthy and 
+		 * {@link Outcome#UNHEALTHY}, {@link Outcome#ERROR} and {@link Outcome#TIMEOUT} only for unhealthy instances.
+		 * @param outcome the outcome
+		 * @return this {@link Builder} instance
+		 */
+		public Builder withOutcome(Outcome outcome) {
+			assertNotNull(outcome, "Outcome must not be null");
+			boolean valid;
+			switch (outcome) {
+			case HEALTHY:
+				valid = isHealthy;
+				break;
+			case UNHEALTHY:
+			case ERROR:
+			case TIMEOUT:
+				valid = !isHealthy;
+				break;
+			default:
+				valid = true;
+			}
+			if (!valid) {
+				throw new IllegalArgumentException("Outcome " + outcome + " is not valid for " + (isHealthy ? "healthy" : "unhealthy"));
+			}
+			this.outcome = outcome;
 			return this;
 		}
 
 		/**
 		 * Create a new {@link Health} from the provided information. 
-		 * @return a new {@link Health} instance
+		 * @return a new {@link Health} instance, or a shared instance if there are no details and the outcome is the default
 		 */
 		public Health build() {
-			return new Health(this.isHealthy, this.details);
+			Health shared = isHealthy ? HEALTHY : UNHEALTHY;
+			if (this.details.isEmpty() && this.outcome == shared.outcome) {
+				return shared;
+			}
+			return new Health(this.isHealthy, this.outcome, this.details);
+		}
+	}
+	
+	/**
+	 * Immutable map stored as a chain of entries, each layered on top of the previous details. Adding a new key
+	 * allocates a single entry. Replacing an existing key copies the chain, keeping the key's original position.
+	 * Iteration is in insertion order.
+	 */
+	private static final class Details extends AbstractMap<String, Object> {
+		
+		private static final Details EMPTY = new Details(null, null, null);
+		
+		private final String key;
+		private final Object value;
+		private final Details parent;
+		private final int size;
+		
+		private Details(String key, Object value, Details parent) {
+			this.key = key;
+			this.value = value;
+			this.parent = parent;
+			this.size = parent == null ? 0 : parent.size + 1;
+		}
+		
+		Details with(String key, Object value) {
+			if (!containsKey(key)) {
+				return new Details(key, value, this);
+			}
+			Details copy = EMPTY;
+			for (Details entry : entries()) {
+				copy = new Details(entry.key, key.equals(entry.key) ? value : entry.value, copy);
+			}
+			return copy;
+		}
+		
+		@Override
+		public int size() {
+			return size;
+		}
+		
+		@Override
+		public boolean containsKey(Object key) {
+			return find(key) != null;
+		}
+		
+		@Override
+		public Object get(Object key) {
+			Details entry = find(key);
+			return entry != null ? entry.value : null;
+		}
+		
+		private Details find(Object key) {
+			for (Details entry = this; entry.parent != null; entry = entry.parent) {
+				if (entry.key.equals(key)) {
+					return entry;
+				}
+			}
+			return null;
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if (o == this) {
+				return true;
+			}
+			if (!(o instanceof Details)) {
+				return super.equals(o);
+			}
+			Details other = (Details) o;
+			if (other.size != size) {
+				return false;
+			}
+			for (Details entry = this; entry.parent != null; entry = entry.parent) {
+				Details match = other.find(entry.key);
+				if (match == null || !entry.value.equals(match.value)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		@Override
+		public int hashCode() {
+			int hash = 0;
+			for (Details entry = this; entry.parent != null; entry = entry.parent) {
+				hash += entry.key.hashCode() ^ entry.value.hashCode();
+			}
+			return hash;
+		}
+		
+		/**
+		 * @return entries from oldest to newest
+		 */
+		private Details[] entries() {
+			Details[] entries = new Details[size];
+			Details entry = this;
+			for (int i = size - 1; i >= 0; i--, entry = entry.parent) {
+				entries[i] = entry;
+			}
+			return entries;
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			return new AbstractSet<Entry<String, Object>>() {
+				@Override
+				public Iterator<Entry<String, Object>> iterator() {
+					Details[] entries = entries();
+					return new Iterator<Entry<String, Object>>() {
+						private int next = 0;
+						
+						@Override
+						public boolean hasNext() {
+							return next < entries.length;
+						}
+						
+						@Override
+						public Entry<String, Object> next() {
+							if (next >= entries.length) {
+								throw new NoSuchElementException();
+							}
+							Details entry = entries[next++];
+							return new SimpleImmutableEntry<>(entry.key, entry.value);
+						}
+					};
+				}
+				
+				@Override
+				public int size() {
+					return size;
+				}
+			};
 		}
 	}
 	
@@ -169,7 +385,7 @@ public final class Health {
 
     @Override
     public String toString() {
-        return "Health [details=" + details + ", isHealthy=" + isHealthy + "]";
+        return "Health [details=" + details + ", isHealthy=" + isHealthy + ", outcome=" + outcome + "]";
     }
 
 }
@@ -16,10 +16,15 @@
 package com.netflix.runtime.health.api;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Immutable status returned by {@link HealthCheckAggregator}.
+ * 
+ * Statuses created by the same {@link HealthCheckAggregator} carry a monotonically increasing version. Two 
+ * statuses with the same version are identical, so consumers can skip re-processing a status whose version 
+ * they have already seen. Statuses created directly have version 0.
  */
 public class HealthCheckStatus {
 
@@ -27,17 +32,32 @@ public class HealthCheckStatus {
 
     private final List<Health> healthResults;
     private final List<Health> suppressedHealthResults;
+    private final long version;
 
     public HealthCheckStatus(boolean isHealthy, List<Health> indicators) {
-        this.isHealthy = isHealthy;
-        this.healthResults = new ArrayList<>(indicators);
-        this.suppressedHealthResults = new ArrayList<>();
+        this(isHealthy, indicators, Collections.emptyList());
     }
     
     public HealthCheckStatus(boolean isHealthy, List<Health> indicators, List<Health> suppressedIndicators) {
+        this(isHealthy, indicators, suppressedIndicators, 0);
+    }
+
+    public HealthCheckStatus(boolean isHealthy, List<Health> indicators, List<Health> suppressedIndicators, long version) {
+        this.isHealthy = isHealthy;
+        this.healthResults = Collections.unmodifiableList(new ArrayList<>(indicators));
+        this.suppressedHealthResults = Collections.unmodifiableList(new ArrayList<>(suppressedIndicators));
+        this.version = version;
+    }
+
+    /**
+     * For subclasses which create their health results lazily by overriding {@link #getHealthResults()} and
+     * {@link #getSuppressedHealthResults()}.
+     */
+    protected HealthCheckStatus(boolean isHealthy, long version) {
         this.isHealthy = isHealthy;
-        this.healthResults = new ArrayList<>(indicators);
-        this.suppressedHealthResults = new ArrayList<>(suppressedIndicators);
+        this.healthResults = Collections.emptyList();
+        this.suppressedHealthResults = Collections.emptyList();
+        this.version = version;
     }
 
     public boolean isHealthy() {
@@ -58,6 +78,13 @@ public class HealthCheckStatus {
         return suppressedHealthResults;
     }
 
+    /**
+     * Version of this status, see {@link HealthCheckStatus}.
+     */
+    public long getVersion() {
+        return version;
+    }
+
     public static HealthCheckStatus create(boolean isHealthy, List<Health> indicators) {
         return new HealthCheckStatus(isHealthy, indicators);
     }
@@ -66,8 +93,12 @@ public class HealthCheckStatus {
         return new HealthCheckStatus(isHealthy, indicators, suppressedIndicators);
     }
     
+    public static HealthCheckStatus create(boolean isHealthy, List<Health> indicators, List<Health> suppressedIndicators, long version) {
+        return new HealthCheckStatus(isHealthy, indicators, suppressedIndicators, version);
+    }
+    
     @Override
     public String toString() {
-        return "HealthCheckStatus[isHealthy=" + isHealthy + ", indicators=" + healthResults + ", + suppressedIndicators=" + suppressedHealthResults + "]";
+        return "HealthCheckStatus[isHealthy=" + isHealthy + ", indicators=" + getHealthResults() + ", + suppressedIndicators=" + getSuppressedHealthResults() + "]";
     }
 }
@@ -15,6 +15,9 @@
  */
 package com.netflix.runtime.health.api;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * Basic interface for defining health indication logic.  0 or more HealthIndicators are used to determine 
  * the application health. HealthIndicators are tracked by a {@link HealthCheckAggregator}
@@ -58,6 +61,21 @@ package com.netflix.runtime.health.api;
  * @author elandau
  */
 public interface HealthIndicator {
+    
+    /**
+     * Tag (see {@link #getTags()}) of indicators whose unhealthy result decides the overall health. Once a critical 
+     * indicator reports unhealthy, the default {@link HealthCheckAggregator} completes the check without waiting for 
+     * the remaining indicators.
+     */
+    String CRITICAL_TAG = "critical";
+    
+    /**
+     * Tag (see {@link #getTags()}) of indicators which are reported but don't affect the overall health. The default 
+     * {@link HealthCheckAggregator} reports their most recent result and refreshes them in the background instead of 
+     * waiting for them.
+     */
+    String NON_CRITICAL_TAG = "non-critical";
+    
     /**
      * Inform the provided {@link HealthIndicatorCallback} of the {@link Health}.
      * 
@@ -80,4 +98,39 @@ public interface HealthIndicator {
         return this.getClass().getName();
     }
 
+    /**
+     * Number of milliseconds a {@link HealthCheckAggregator} should wait for this HealthIndicator to respond 
+     * before reporting it as unhealthy with a timeout. Override to give fast indicators a tighter deadline or 
+     * slow ones a longer one than the aggregator's default. A value of 0 or less uses the aggregator's default.
+     * 
+     * The value is read once when the {@link HealthCheckAggregator} is created.
+     */
+    default long getTimeoutInMillis() {
+        return 0;
+    }
+
+    /**
+     * Tags used in filtering (see {@link IndicatorMatchers}) HealthIndicators, for example to group 
+     * all indicators of a subsystem under a single include or exclude rule. Also used to mark indicators as 
+     * {@link #CRITICAL_TAG critical} or {@link #NON_CRITICAL_TAG non-critical}, indicators with neither tag are
+     * always awaited and affect the overall health.
+     * 
+     * The criticality tags are read once when the {@link HealthCheckAggregator} is created.
+     */
+    default Set<String> getTags() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Names (see {@link #getName()}) of the indicators this HealthIndicator depends on. The default 
+     * {@link HealthCheckAggregator} only invokes this HealthIndicator once all of them reported healthy, and 
+     * otherwise reports it as unhealthy with a {@link Health#SKIPPED_KEY} detail naming the unhealthy dependency. 
+     * Indicators without dependencies are invoked right away. Names that match no other indicator are ignored.
+     * 
+     * The value is read once when the {@link HealthCheckAggregator} is created.
+     */
+    default Set<String> getDependencies() {
+        return Collections.emptySet();
+    }
+
 }
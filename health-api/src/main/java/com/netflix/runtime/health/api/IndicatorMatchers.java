@@ -17,8 +17,10 @@ package com.netflix.runtime.health.api;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Static builder of for creating an {@link IndicatorMatcher} instance. Excluded 
@@ -29,6 +31,15 @@ import java.util.Optional;
  *                  .excludes("someIndicatorName")
  *                  .build();
  * </pre>
+ * 
+ * Besides exact indicator names, includes and excludes accept the following rules:
+ * <ul>
+ *  <li>"glob:com.netflix.*Db?Indicator" - name matching a glob, where * matches any sequence and ? any single character</li>
+ *  <li>"regex:.*Cassandra.*" - name fully matching a regular expression</li>
+ *  <li>"package:com.netflix.persistence" - indicators named after classes in the package or its subpackages</li>
+ *  <li>"tag:database" - indicators whose {@link HealthIndicator#getTags()} contain the tag</li>
+ * </ul>
+ * Rules are compiled once when the matcher is built and the result for each indicator name is memoized.
  */
 public class IndicatorMatchers {
     
@@ -68,11 +79,21 @@ public class IndicatorMatchers {
             return this;
         }
         
+        /**
+         * Compile the included and excluded names into hash sets, or the rules into a single compiled matcher, 
+         * so that matching doesn't depend on the number of names. Later changes to this builder do not affect the 
+         * returned matcher. 
+         */
         public IndicatorMatcher build() {
+            if (CompiledIndicatorMatcher.requiresCompilation(includedIndicatorNames)
+                    || CompiledIndicatorMatcher.requiresCompilation(excludedIndicatorNames)) {
+                return new CompiledIndicatorMatcher(includedIndicatorNames, excludedIndicatorNames);
+            }
+            final Set<String> excluded = new HashSet<>(excludedIndicatorNames);
+            final Set<String> included = new HashSet<>(includedIndicatorNames);
             return indicator -> {
-                return excludedIndicatorNames.stream().noneMatch(i -> indicator.getName().equals(i))
-                        && (includedIndicatorNames.isEmpty()
-                                || includedIndicatorNames.stream().anyMatch(indicator.getName()::equals));
+                String name = indicator.getName();
+                return !excluded.contains(name) && (included.isEmpty() || included.contains(name));
             };
         }
         
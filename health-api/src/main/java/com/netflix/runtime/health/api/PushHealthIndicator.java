@@ -0,0 +1,46 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.api;
+
+/**
+ * {@link HealthIndicator} which knows when its health changes, for example the state of a connection pool or a
+ * circuit breaker, and publishes each change to registered listeners instead of being polled. 
+ * 
+ * {@link HealthCheckAggregator}s which support push indicators subscribe once and report the most recently 
+ * published {@link Health} without invoking the indicator on each check. Other aggregators simply call 
+ * {@link #check(HealthIndicatorCallback)}, which reports the current {@link Health}.
+ * 
+ * See {@link AbstractPushHealthIndicator} for a base implementation.
+ */
+public interface PushHealthIndicator extends HealthIndicator {
+
+    /**
+     * @return the current {@link Health}, never null
+     */
+    Health getHealth();
+
+    /**
+     * Register a listener to be informed of every {@link Health} published after registration.
+     */
+    void addListener(HealthIndicatorCallback listener);
+
+    void removeListener(HealthIndicatorCallback listener);
+
+    @Override
+    default void check(HealthIndicatorCallback healthCallback) {
+        healthCallback.inform(getHealth());
+    }
+}
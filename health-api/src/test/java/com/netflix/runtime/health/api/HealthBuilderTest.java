@@ -19,8 +19,12 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+
 import org.junit.Test;
 
 public class HealthBuilderTest {
@@ -113,4 +117,68 @@ public class HealthBuilderTest {
 		.hasMessageContaining("\"error\" is a reserved key and may not be overridden");
 	}
 
+	@Test
+	public void detailFreeStatusesAreShared() {
+		assertSame(Health.healthy().build(), Health.healthy().build());
+		assertSame(Health.unhealthy().build(), Health.unhealthy().build());
+	}
+	
+	@Test
+	public void fromDoesNotModifySource() {
+		Health source = Health.healthy().withDetail("foo", "bar").build();
+		Health derived = Health.from(source).withDetail("baz", "qux").withDetail("foo", "quux").build();
+		assertEquals(1, source.getDetails().size());
+		assertEquals("bar", source.getDetails().get("foo"));
+		assertEquals(2, derived.getDetails().size());
+		assertEquals("quux", derived.getDetails().get("foo"));
+		assertEquals("qux", derived.getDetails().get("baz"));
+	}
+	
+	@Test
+	public void detailsKeepInsertionOrder() {
+		Health health = Health.healthy()
+										.withDetail("c", 1)
+										.withDetail("a", 2)
+										.withDetail("b", 3)
+										.withDetail("a", 4).build();
+		assertEquals(Arrays.asList("c", "a", "b"), new ArrayList<>(health.getDetails().keySet()));
+		assertEquals(Arrays.asList(1, 4, 3), new ArrayList<>(health.getDetails().values()));
+		assertEquals("{c=1, a=4, b=3}", health.getDetails().toString());
+	}
+	
+	@Test
+	public void detailsAreUnmodifiable() {
+		Health health = Health.healthy().withDetail("foo", "bar").build();
+		assertThatThrownBy(() -> health.getDetails().put("baz", "qux"))
+								.isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> health.getDetails().clear())
+								.isInstanceOf(UnsupportedOperationException.class);
+	}
+	
+	@Test
+	public void defaultOutcomes() {
+		assertEquals(Health.Outcome.HEALTHY, Health.healthy().build().getOutcome());
+		assertEquals(Health.Outcome.UNHEALTHY, Health.unhealthy().build().getOutcome());
+		assertEquals(Health.Outcome.UNHEALTHY, Health.unhealthy(new RuntimeException("Boom")).build().getOutcome());
+	}
+	
+	@Test
+	public void outcomeIsKeptByBuilder() {
+		Health timedOut = Health.unhealthy().withOutcome(Health.Outcome.TIMEOUT).build();
+		assertEquals(Health.Outcome.TIMEOUT, timedOut.getOutcome());
+		assertEquals(Health.Outcome.TIMEOUT, Health.from(timedOut).withDetail("foo", "bar").build().getOutcome());
+		assertSame(Health.unhealthy().build(), Health.unhealthy().build());
+		assertFalse(timedOut == Health.unhealthy().build());
+	}
+	
+	@Test
+	public void outcomeMustMatchHealth() {
+		assertThatThrownBy(() -> Health.healthy().withOutcome(Health.Outcome.TIMEOUT))
+								.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> Health.unhealthy().withOutcome(Health.Outcome.HEALTHY))
+								.isInstanceOf(IllegalArgumentException.class);
+		assertTrue(Health.healthy().withOutcome(Health.Outcome.CACHED).build().isHealthy());
+		assertFalse(Health.unhealthy().withOutcome(Health.Outcome.SUPPRESSED).build().isHealthy());
+	}
+
 }
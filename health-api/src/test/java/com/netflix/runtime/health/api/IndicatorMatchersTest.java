@@ -18,6 +18,10 @@ package com.netflix.runtime.health.api;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.Test;
 
 public class IndicatorMatchersTest {
@@ -84,7 +88,120 @@ public class IndicatorMatchersTest {
     public void testExcludeBeatsInclude() {
         assertFalse(IndicatorMatchers.includes(A.class.getName()).excludes(A.class.getName()).build().matches(new A()));
     }
+    
+    @Test
+    public void testBuiltMatcherUnaffectedByLaterChanges() {
+        IndicatorMatchers.IndicatorMatcherBuilder builder = IndicatorMatchers.includes(A.class.getName());
+        IndicatorMatcher matcher = builder.build();
+        builder.excludes(A.class.getName()).includes(B.class.getName());
+        assertTrue(matcher.matches(new A()));
+        assertFalse(matcher.matches(new B()));
+    }
+    
+    @Test
+    public void testGlob() {
+        IndicatorMatcher matcher = IndicatorMatchers.includes("glob:*IndicatorMatchersTest$?").build();
+        assertTrue(matcher.matches(new A()));
+        assertTrue(matcher.matches(new B()));
+        assertFalse(matcher.matches(named("IndicatorMatchersTest$AB")));
+        assertFalse(IndicatorMatchers.excludes("glob:com.netflix.*").build().matches(new A()));
+    }
+    
+    @Test
+    public void testRegex() {
+        IndicatorMatcher matcher = IndicatorMatchers.excludes("regex:.*\\$[AB]").build();
+        assertFalse(matcher.matches(new A()));
+        assertFalse(matcher.matches(new B()));
+        assertTrue(matcher.matches(new C()));
+    }
+    
+    @Test
+    public void testPackage() {
+        IndicatorMatcher matcher = IndicatorMatchers.includes("package:com.netflix.runtime").build();
+        assertTrue(matcher.matches(new A()));
+        assertFalse(matcher.matches(named("com.netflix.runtimeother.Indicator")));
+        assertFalse(matcher.matches(named("org.example.Indicator")));
+        assertTrue(IndicatorMatchers.includes("package:com.netflix.").build().matches(new A()));
+    }
+    
+    @Test
+    public void testTag() {
+        IndicatorMatcher matcher = IndicatorMatchers.includes("tag:database").build();
+        assertTrue(matcher.matches(tagged("db", "database")));
+        assertFalse(matcher.matches(tagged("cache", "memcached")));
+        assertFalse(matcher.matches(new A()));
+    }
+    
+    @Test
+    public void testRulesCombineWithNames() {
+        IndicatorMatcher matcher = IndicatorMatchers.includes("package:com.netflix", "org.example.Indicator")
+                .excludes(B.class.getName(), "tag:flaky")
+                .build();
+        assertTrue(matcher.matches(new A()));
+        assertFalse(matcher.matches(new B()));
+        assertTrue(matcher.matches(named("org.example.Indicator")));
+        assertFalse(matcher.matches(named("org.example.Other")));
+        assertFalse(matcher.matches(tagged("com.netflix.Flaky", "flaky")));
+    }
+    
+    @Test
+    public void testResultMemoizedPerIndicator() {
+        IndicatorMatcher matcher = IndicatorMatchers.includes("glob:*$A").build();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(matcher.matches(new A()));
+            assertFalse(matcher.matches(new B()));
+        }
+    }
+    
+    @Test
+    public void testTagsOfSameNamedIndicatorsMatchedSeparately() {
+        IndicatorMatcher matcher = IndicatorMatchers.includes("tag:database").build();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(matcher.matches(tagged("pool", "database")));
+            assertFalse(matcher.matches(tagged("pool", "cache")));
+        }
+    }
+    
+    @Test
+    public void testTagResultMemoizedPerInstance() {
+        Set<String> tags = new HashSet<>(Arrays.asList("database"));
+        HealthIndicator indicator = new HealthIndicator() {
+            @Override
+            public void check(HealthIndicatorCallback healthCallback) {
+                healthCallback.inform(Health.healthy().build());
+            }
+            
+            @Override
+            public Set<String> getTags() {
+                return tags;
+            }
+        };
+        IndicatorMatcher matcher = IndicatorMatchers.includes("tag:database").build();
+        assertTrue(matcher.matches(indicator));
+        tags.clear();
+        assertTrue(matcher.matches(indicator));
+    }
+    
+    private static HealthIndicator named(String name) {
+        return tagged(name);
+    }
+    
+    private static HealthIndicator tagged(String name, String... tags) {
+        return new HealthIndicator() {
+            @Override
+            public void check(HealthIndicatorCallback healthCallback) {
+                healthCallback.inform(Health.healthy().build());
+            }
+            
+            @Override
+            public String getName() {
+                return name;
+            }
+            
+            @Override
+            public Set<String> getTags() {
+                return new HashSet<>(Arrays.asList(tags));
+            }
+        };
+    }
 }
-
-
-
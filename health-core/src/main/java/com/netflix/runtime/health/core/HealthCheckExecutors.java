@@ -0,0 +1,96 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.netflix.runtime.health.api.HealthIndicator;
+
+/**
+ * Factory methods for the executors used by {@link SimpleHealthCheckAggregator} to invoke {@link HealthIndicator}s
+ * and to monitor them for timeouts. All threads created are daemon threads.
+ */
+public final class HealthCheckExecutors {
+
+    private static final long DEDICATED_KEEP_ALIVE_SECONDS = 60;
+
+    private HealthCheckExecutors() {
+    }
+
+    /**
+     * Executor with a fixed number of threads shared by all {@link HealthIndicator} invocations.
+     */
+    public static ExecutorService newFixedThreadPool(int poolSize) {
+        return Executors.newFixedThreadPool(poolSize, daemonThreadFactory("healthIndicatorExecutor"));
+    }
+
+    /**
+     * Executor which runs each {@link HealthIndicator} invocation in its own virtual thread, so indicators that
+     * block on I/O never queue behind each other. Virtual threads require JDK 21 or later; on older JDKs this
+     * falls back to a new (cached) platform thread per concurrent invocation.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor("healthIndicatorExecutor");
+        if (executor == null) {
+            executor = Executors.newCachedThreadPool(daemonThreadFactory("healthIndicatorExecutor"));
+        }
+        return executor;
+    }
+
+    /**
+     * Single threaded scheduler used to time out {@link HealthIndicator} invocations. Timeouts are cancelled as soon as
+     * all indicators have responded, and cancelled tasks are removed from the queue immediately rather than when their 
+     * delay expires. A scheduler supplied to {@link SimpleHealthCheckAggregator} should do the same, 
+     * see {@link ScheduledThreadPoolExecutor#setRemoveOnCancelPolicy(boolean)}.
+     */
+    public static ScheduledExecutorService newScheduledExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, daemonThreadFactory("healthIndicatorMonitor"));
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Executor with a single thread, which only lives while tasks are queued, for an indicator invoked apart from 
+     * the shared executor.
+     */
+    static ExecutorService newDedicatedExecutor(String indicatorName) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, DEDICATED_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, 
+                new LinkedBlockingQueue<>(), daemonThreadFactory("healthIndicatorDedicated-" + indicatorName));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    static ThreadFactory daemonThreadFactory(String name) {
+        return new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, name + "-" + counter.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
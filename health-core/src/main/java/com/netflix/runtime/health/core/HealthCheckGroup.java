@@ -0,0 +1,113 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.netflix.runtime.health.api.HealthCheckAggregator;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.IndicatorMatcher;
+
+/**
+ * Named subset of the {@link HealthIndicator}s of a {@link SimpleHealthCheckAggregator}, such as the indicators 
+ * deciding liveness, readiness or startup of the application. Created with 
+ * {@link SimpleHealthCheckAggregator#group(String, IndicatorMatcher, Rule)}.
+ * 
+ * A group doesn't invoke indicators itself: it reports the results of the evaluations of its aggregator (when
+ * refreshing in the background, those of the last refresh), so indicators included in several groups are invoked 
+ * once and their results shared. Indicators not matched by the group are reported as suppressed, and the health of 
+ * the matched ones is combined according to the group's {@link Rule}. 
+ * 
+ * Checks of a group don't publish {@link HealthCheckStatusChangedEvent}s, only those of the aggregator do.
+ */
+public final class HealthCheckGroup implements HealthCheckAggregator {
+
+    /**
+     * How the results of the indicators of a group are combined into its health. Indicators tagged 
+     * {@link HealthIndicator#NON_CRITICAL_TAG non-critical} never affect the health of a group.
+     */
+    public enum Rule {
+        /**
+         * Healthy if every indicator is healthy.
+         */
+        ALL_HEALTHY,
+        /**
+         * Healthy if every indicator tagged {@link HealthIndicator#CRITICAL_TAG critical} is healthy, for example 
+         * for liveness, which shouldn't fail because of a dependency of the application.
+         */
+        CRITICAL_HEALTHY,
+        /**
+         * Healthy if any indicator is healthy, or there are no indicators.
+         */
+        ANY_HEALTHY
+    }
+
+    private final SimpleHealthCheckAggregator aggregator;
+    private final String name;
+    private final IndicatorMatcher matcher;
+    private final Rule rule;
+    private final AtomicReference<IndexedHealthCheckStatus> previousStatus;
+
+    HealthCheckGroup(SimpleHealthCheckAggregator aggregator, String name, IndicatorMatcher matcher, Rule rule) {
+        if (name == null || rule == null || matcher == null) {
+            throw new IllegalArgumentException("name, matcher and rule must not be null");
+        }
+        this.aggregator = aggregator;
+        this.name = name;
+        this.matcher = matcher;
+        this.rule = rule;
+        this.previousStatus = new AtomicReference<>();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public CompletableFuture<HealthCheckStatus> check() {
+        return aggregator.currentResults(scope(matcher))
+                .thenApply(results -> aggregator.getStatusFromResults(results, matcher, rule, previousStatus));
+    }
+
+    /**
+     * Check the indicators of this group, also suppressing the indicators not matched by the provided 
+     * {@link IndicatorMatcher}.
+     */
+    @Override
+    public CompletableFuture<HealthCheckStatus> check(IndicatorMatcher matcher) {
+        IndicatorMatcher combined = indicator -> this.matcher.matches(indicator) && matcher.matches(indicator);
+        return aggregator.currentResults(scope(combined))
+                .thenApply(results -> aggregator.getStatusFromResults(results, combined, rule, previousStatus));
+    }
+    
+    /**
+     * An unhealthy critical indicator of the group decides its health, unless any healthy indicator is enough.
+     */
+    private IndicatorMatcher scope(IndicatorMatcher matcher) {
+        return rule == Rule.ANY_HEALTHY ? null : matcher;
+    }
+
+    @Override
+    public String toString() {
+        return "HealthCheckGroup[name=" + name + ", rule=" + rule + "]";
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import com.netflix.spectator.api.histogram.PercentileTimer;
+
+/**
+ * Meters recorded by {@link SimpleHealthCheckAggregator}. All meters are resolved when the aggregator is created 
+ * so that recording a check doesn't create any ids.
+ * 
+ * <ul>
+ * <li>runtime.health, tagged status=HEALTHY|UNHEALTHY|TIMEOUT: counter of completed checks</li>
+ * <li>runtime.health.indicator, tagged indicator=name and outcome={@link Health.Outcome}: counter of the results of 
+ * each indicator</li>
+ * <li>runtime.health.check: percentile timer of the end-to-end latency of checks</li>
+ * <li>runtime.health.indicator.queueWait, tagged indicator=name: percentile timer of the time between submitting 
+ * an indicator to the executor and its invocation</li>
+ * <li>runtime.health.indicator.latency, tagged indicator=name: percentile timer of the time between invoking an
+ * indicator and its response. Responses after a timeout aren't recorded</li>
+ * <li>runtime.health.executor.queued and runtime.health.executor.active: gauges of the indicator invocations waiting 
+ * for and running on the executor</li>
+ * <li>runtime.health.executor.stuck: gauge of the indicator invocations which timed out and are still blocked</li>
+ * </ul>
+ */
+final class HealthCheckMetrics {
+    
+    private final Counter healthy;
+    private final Counter unhealthy;
+    private final Counter timeout;
+    private final Timer checkLatency;
+    private final Timer[] queueWait;
+    private final Timer[] latency;
+    private final Counter[][] outcomes;
+    private final AtomicInteger queued;
+    private final AtomicInteger active;
+    
+    HealthCheckMetrics(Registry registry, List<HealthIndicator> indicators, AtomicInteger stuck) {
+        this.healthy = registry.counter("runtime.health", "status", "HEALTHY");
+        this.unhealthy = registry.counter("runtime.health", "status", "UNHEALTHY");
+        this.timeout = registry.counter("runtime.health", "status", "TIMEOUT");
+        this.checkLatency = PercentileTimer.get(registry, registry.createId("runtime.health.check"));
+        this.queueWait = new Timer[indicators.size()];
+        this.latency = new Timer[indicators.size()];
+        this.outcomes = new Counter[indicators.size()][Health.Outcome.values().length];
+        for (int i = 0; i < indicators.size(); i++) {
+            String name = indicators.get(i).getName();
+            for (Health.Outcome outcome : Health.Outcome.values()) {
+                outcomes[i][outcome.ordinal()] = registry.counter("runtime.health.indicator", "indicator", name, 
+                        "outcome", outcome.name());
+            }
+            queueWait[i] = PercentileTimer.get(registry, registry.createId("runtime.health.indicator.queueWait", "indicator", name));
+            latency[i] = PercentileTimer.get(registry, registry.createId("runtime.health.indicator.latency", "indicator", name));
+        }
+        // gauges only hold weak references, the counts are referenced by this instance
+        this.queued = registry.gauge(registry.createId("runtime.health.executor.queued"), new AtomicInteger());
+        this.active = registry.gauge(registry.createId("runtime.health.executor.active"), new AtomicInteger());
+        registry.gauge(registry.createId("runtime.health.executor.stuck"), stuck);
+    }
+    
+    void recordStatus(boolean isHealthy, boolean timedOut, long checkStartTime) {
+        checkLatency.record(System.nanoTime() - checkStartTime, TimeUnit.NANOSECONDS);
+        (timedOut ? timeout : isHealthy ? healthy : unhealthy).increment();
+    }
+    
+    void recordOutcome(int index, Health.Outcome outcome) {
+        outcomes[index][outcome.ordinal()].increment();
+    }
+    
+    void submitted() {
+        queued.incrementAndGet();
+    }
+    
+    /**
+     * @return the time at which the indicator was invoked
+     */
+    long invoked(int index, long submitTime) {
+        long now = System.nanoTime();
+        queueWait[index].record(now - submitTime, TimeUnit.NANOSECONDS);
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        return now;
+    }
+    
+    void dequeued() {
+        queued.decrementAndGet();
+    }
+    
+    void returned() {
+        active.decrementAndGet();
+    }
+    
+    void responded(int index, long invokeTime) {
+        latency[index].record(System.nanoTime() - invokeTime, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+
+/**
+ * Decides when a change of the aggregated health is declared, and a {@link HealthCheckStatusChangedEvent} 
+ * published, so that a marginal {@link HealthIndicator} oscillating between healthy and unhealthy doesn't 
+ * cause a storm of events.
+ * 
+ * A transition is declared only after the new health was reported by a number of consecutive checks and the 
+ * previous health has been declared for a minimum dwell time. 
+ * 
+ * Optionally flaps are damped in the style of BGP route flap damping, both per indicator and for the overall 
+ * health: each flip between healthy and unhealthy adds a penalty of {@value #FLAP_PENALTY} which decays 
+ * exponentially with the configured half-life. Once the penalty exceeds the suppress threshold the indicator 
+ * (or the overall health) is considered unhealthy until its penalty decays below the reuse threshold. The penalty 
+ * is capped so that nothing is suppressed for longer than the configured maximum. Details of the results of 
+ * damped indicators include {@value #FLAPPING_KEY}=true.
+ * 
+ * Instances are stateful and must not be shared between aggregators.
+ */
+public final class HealthStatusDamper {
+    
+    public static final String FLAPPING_KEY = "flapping";
+    public static final double FLAP_PENALTY = 1000;
+    
+    private final int consecutiveResults;
+    private final long minDwell;
+    private final long halfLife;
+    private final double suppressThreshold;
+    private final double reuseThreshold;
+    private final double maxPenalty;
+    
+    private FlapPenalty overall;
+    private FlapPenalty[] perIndicator = new FlapPenalty[0];
+    private boolean declared;
+    private boolean hasDeclared;
+    private long declaredTime;
+    private int pending;
+    
+    private HealthStatusDamper(Builder builder) {
+        this.consecutiveResults = builder.consecutiveResults;
+        this.minDwell = builder.minDwell;
+        this.halfLife = builder.halfLife;
+        this.suppressThreshold = builder.suppressThreshold;
+        this.reuseThreshold = builder.reuseThreshold;
+        this.maxPenalty = halfLife > 0 
+                ? reuseThreshold * Math.pow(2, (double) builder.maxSuppress / halfLife) : 0;
+        this.overall = newPenalty();
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    /**
+     * @return the declared health, initially unhealthy
+     */
+    public synchronized boolean isHealthy() {
+        return declared;
+    }
+    
+    /**
+     * Record the status of a check completed at nanoTime.
+     * @return the status to publish if a transition is declared, or null otherwise. The published status is 
+     *          unhealthy if any of its indicators or the overall health is damped.
+     */
+    synchronized HealthCheckStatus offer(HealthCheckStatus status, long nanoTime) {
+        boolean healthy = status.isHealthy();
+        boolean[] flapping = null;
+        if (halfLife > 0 && status instanceof IndexedHealthCheckStatus) {
+            IndexedHealthCheckStatus indexed = (IndexedHealthCheckStatus) status;
+            Health[] healths = indexed.getResults().rawHealths;
+            if (perIndicator.length != healths.length) {
+                perIndicator = new FlapPenalty[healths.length];
+                for (int i = 0; i < healths.length; i++) {
+                    perIndicator[i] = newPenalty();
+                }
+            }
+            for (int i = 0; i < healths.length; i++) {
+                if (perIndicator[i].observe(healths[i].isHealthy(), nanoTime) && !indexed.isSuppressed(i)) {
+                    if (flapping == null) {
+                        flapping = new boolean[healths.length];
+                    }
+                    flapping[i] = true;
+                    healthy = false;
+                }
+            }
+        }
+        if (overall != null && overall.observe(healthy, nanoTime)) {
+            healthy = false;
+        }
+        
+        if (healthy == declared) {
+            pending = 0;
+            return null;
+        }
+        if (++pending < consecutiveResults || (hasDeclared && nanoTime - declaredTime < minDwell)) {
+            return null;
+        }
+        declared = healthy;
+        hasDeclared = true;
+        declaredTime = nanoTime;
+        pending = 0;
+        return healthy == status.isHealthy() ? status : damped(status, flapping);
+    }
+    
+    private HealthCheckStatus damped(HealthCheckStatus status, boolean[] flapping) {
+        if (flapping == null) {
+            return HealthCheckStatus.create(false, status.getHealthResults(), status.getSuppressedHealthResults());
+        }
+        IndexedHealthCheckStatus indexed = (IndexedHealthCheckStatus) status;
+        Health[] healths = indexed.getResults().healths;
+        List<Health> results = new ArrayList<>();
+        for (int i = 0; i < healths.length; i++) {
+            if (!indexed.isSuppressed(i)) {
+                results.add(flapping[i] ? Health.from(healths[i]).withDetail(FLAPPING_KEY, true).build() : healths[i]);
+            }
+        }
+        // not identical to the aggregator's status of the same version
+        return HealthCheckStatus.create(false, results, status.getSuppressedHealthResults());
+    }
+    
+    private FlapPenalty newPenalty() {
+        return halfLife > 0 ? new FlapPenalty() : null;
+    }
+    
+    private final class FlapPenalty {
+        private boolean healthy;
+        private boolean observed;
+        private boolean suppressed;
+        private double value;
+        private long updated;
+        
+        /**
+         * @return true if suppressed
+         */
+        boolean observe(boolean healthy, long nanoTime) {
+            if (value > 0) {
+                value *= Math.pow(0.5, (double) (nanoTime - updated) / halfLife);
+            }
+            updated = nanoTime;
+            if (observed && healthy != this.healthy) {
+                value = Math.min(value + FLAP_PENALTY, maxPenalty);
+            }
+            this.healthy = healthy;
+            this.observed = true;
+            if (!suppressed && value > suppressThreshold) {
+                suppressed = true;
+            } else if (suppressed && value < reuseThreshold) {
+                suppressed = false;
+            }
+            return suppressed;
+        }
+    }
+    
+    public static class Builder {
+        private int consecutiveResults = 1;
+        private long minDwell;
+        private long halfLife;
+        private long maxSuppress;
+        private double suppressThreshold = 2000;
+        private double reuseThreshold = 750;
+        
+        /**
+         * Number of consecutive checks which must report a new health before the transition is declared. 
+         * Defaults to 1.
+         */
+        public Builder withConsecutiveResults(int consecutiveResults) {
+            if (consecutiveResults < 1) {
+                throw new IllegalArgumentException("consecutiveResults must be at least 1");
+            }
+            this.consecutiveResults = consecutiveResults;
+            return this;
+        }
+        
+        /**
+         * Minimum time for which a declared health is kept before the next transition. Defaults to 0.
+         */
+        public Builder withMinDwell(long minDwell, TimeUnit units) {
+            this.minDwell = units.toNanos(minDwell);
+            return this;
+        }
+        
+        /**
+         * Enable flap damping. 
+         * @param halfLife time in which a flap penalty decays to half its value
+         * @param maxSuppress maximum time for which an indicator or the overall health is suppressed
+         */
+        public Builder withFlapDamping(long halfLife, long maxSuppress, TimeUnit units) {
+            if (halfLife <= 0) {
+                throw new IllegalArgumentException("halfLife must be positive");
+            }
+            this.halfLife = units.toNanos(halfLife);
+            this.maxSuppress = units.toNanos(maxSuppress);
+            return this;
+        }
+        
+        /**
+         * Penalties above which a flapping indicator is suppressed and below which it is reused. Default to 2000 
+         * and 750, so that a third flip within a half-life suppresses an indicator.
+         */
+        public Builder withFlapThresholds(double suppressThreshold, double reuseThreshold) {
+            if (reuseThreshold >= suppressThreshold) {
+                throw new IllegalArgumentException("reuseThreshold must be below suppressThreshold");
+            }
+            this.suppressThreshold = suppressThreshold;
+            this.reuseThreshold = reuseThreshold;
+            return this;
+        }
+        
+        public HealthStatusDamper build() {
+            return new HealthStatusDamper(this);
+        }
+    }
+}
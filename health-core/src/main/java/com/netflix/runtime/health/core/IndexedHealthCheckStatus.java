@@ -0,0 +1,111 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+
+/**
+ * {@link HealthCheckStatus} created by {@link SimpleHealthCheckAggregator} from the indexed results of an evaluation.
+ * The result lists are only created when first requested. Suppressed results have the outcome 
+ * {@link Health.Outcome#SUPPRESSED}.
+ */
+final class IndexedHealthCheckStatus extends HealthCheckStatus {
+
+    private final SimpleHealthCheckAggregator.Results results;
+    private final boolean[] suppressed;
+    private final boolean timedOut;
+    private volatile List<Health> healthResults;
+    private volatile List<Health> suppressedHealthResults;
+
+    /**
+     * @param suppressed per indicator whether its result is suppressed, or null if none are
+     * @param timedOut whether any result that isn't suppressed timed out
+     */
+    IndexedHealthCheckStatus(boolean isHealthy, long version, SimpleHealthCheckAggregator.Results results,
+            boolean[] suppressed, boolean timedOut) {
+        super(isHealthy, version);
+        this.results = results;
+        this.suppressed = suppressed;
+        this.timedOut = timedOut;
+    }
+
+    SimpleHealthCheckAggregator.Results getResults() {
+        return results;
+    }
+
+    boolean hasTimedOutResults() {
+        return timedOut;
+    }
+
+    boolean isSuppressed(int index) {
+        return suppressed != null && suppressed[index];
+    }
+
+    /**
+     * @return true if this status reports the same entries with the same suppression
+     */
+    boolean isSameAs(SimpleHealthCheckAggregator.Results other, boolean[] otherSuppressed) {
+        if (suppressed == null ? otherSuppressed != null : otherSuppressed == null) {
+            return false;
+        }
+        Health[] healths = results.healths;
+        for (int i = 0; i < healths.length; i++) {
+            if (healths[i] != other.healths[i] || (suppressed != null && suppressed[i] != otherSuppressed[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public List<Health> getHealthResults() {
+        List<Health> list = healthResults;
+        if (list == null) {
+            healthResults = list = materialize(false);
+        }
+        return list;
+    }
+
+    @Override
+    public List<Health> getSuppressedHealthResults() {
+        List<Health> list = suppressedHealthResults;
+        if (list == null) {
+            suppressedHealthResults = list = materialize(true);
+        }
+        return list;
+    }
+
+    private List<Health> materialize(boolean suppressedResults) {
+        Health[] healths = results.healths;
+        if (suppressed == null) {
+            return suppressedResults ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(healths));
+        }
+        List<Health> list = new ArrayList<>();
+        for (int i = 0; i < healths.length; i++) {
+            if (suppressed[i] == suppressedResults) {
+                list.add(suppressedResults 
+                        ? Health.from(healths[i]).withOutcome(Health.Outcome.SUPPRESSED).build() : healths[i]);
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+}
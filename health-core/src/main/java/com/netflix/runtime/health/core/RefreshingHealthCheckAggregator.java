@@ -0,0 +1,245 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.governator.event.ApplicationEventDispatcher;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.IndicatorMatcher;
+import com.netflix.spectator.api.Registry;
+
+/**
+ * {@link SimpleHealthCheckAggregator} which invokes its {@link HealthIndicator}s on a background schedule
+ * and serves {@link #check()} from the most recently completed {@link HealthCheckStatus}. Callers therefore
+ * never pay for the fan-out to every indicator; check() returns an already completed future.
+ * 
+ * A new refresh is scheduled refreshInterval after the previous one completes, so refreshes never overlap.
+ * If the latest snapshot is older than maxStaleness (for example because a refresh has not completed yet or
+ * the refresh is stuck on indicators that never respond when no wait time is configured), check() falls back
+ * to a live evaluation of all indicators.
+ */
+public class RefreshingHealthCheckAggregator extends SimpleHealthCheckAggregator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RefreshingHealthCheckAggregator.class);
+    private final long refreshInterval;
+    private final long maxStaleness;
+    private final TimeUnit units;
+    private final ScheduledExecutorService refreshExecutor;
+    private volatile Snapshot snapshot;
+
+    public RefreshingHealthCheckAggregator(List<HealthIndicator> indicators, long refreshInterval, long maxStaleness,
+            TimeUnit units, long maxWaitTime, TimeUnit maxWaitUnits) {
+        this(indicators, refreshInterval, maxStaleness, units, maxWaitTime, maxWaitUnits, null);
+    }
+
+    public RefreshingHealthCheckAggregator(List<HealthIndicator> indicators, long refreshInterval, long maxStaleness,
+            TimeUnit units, long maxWaitTime, TimeUnit maxWaitUnits, ApplicationEventDispatcher eventDispatcher) {
+        this(indicators, refreshInterval, maxStaleness, units, maxWaitTime, maxWaitUnits, eventDispatcher, null);
+    }
+
+    public RefreshingHealthCheckAggregator(List<HealthIndicator> indicators, long refreshInterval, long maxStaleness,
+            TimeUnit units, long maxWaitTime, TimeUnit maxWaitUnits, ApplicationEventDispatcher eventDispatcher,
+            Registry registry) {
+        this(builder(indicators, refreshInterval, maxStaleness, units).withMaxWaitTime(maxWaitTime, maxWaitUnits)
+                .withEventDispatcher(eventDispatcher).withRegistry(registry));
+    }
+
+    /**
+     * @deprecated use {@link #builder(List, long, long, TimeUnit)}
+     */
+    @Deprecated
+    public RefreshingHealthCheckAggregator(List<HealthIndicator> indicators, long refreshInterval, long maxStaleness,
+            TimeUnit units, long maxWaitTime, TimeUnit maxWaitUnits, ApplicationEventDispatcher eventDispatcher,
+            Registry registry, boolean coalesceChecks) {
+        this(indicators, refreshInterval, maxStaleness, units, maxWaitTime, maxWaitUnits, eventDispatcher, registry,
+                coalesceChecks, null, null);
+    }
+
+    /**
+     * @deprecated use {@link #builder(List, long, long, TimeUnit)}
+     */
+    @Deprecated
+    public RefreshingHealthCheckAggregator(List<HealthIndicator> indicators, long refreshInterval, long maxStaleness,
+            TimeUnit units, long maxWaitTime, TimeUnit maxWaitUnits, ApplicationEventDispatcher eventDispatcher,
+            Registry registry, boolean coalesceChecks, ExecutorService healthCheckExecutor,
+            ScheduledExecutorService scheduledExecutor) {
+        this(indicators, refreshInterval, maxStaleness, units, maxWaitTime, maxWaitUnits, eventDispatcher, registry,
+                coalesceChecks, healthCheckExecutor, scheduledExecutor, null);
+    }
+
+    /**
+     * @deprecated use {@link #builder(List, long, long, TimeUnit)}
+     */
+    @Deprecated
+    public RefreshingHealthCheckAggregator(List<HealthIndicator> indicators, long refreshInterval, long maxStaleness,
+            TimeUnit units, long maxWaitTime, TimeUnit maxWaitUnits, ApplicationEventDispatcher eventDispatcher,
+            Registry registry, boolean coalesceChecks, ExecutorService healthCheckExecutor,
+            ScheduledExecutorService scheduledExecutor, HealthStatusDamper damper) {
+        this(indicators, refreshInterval, maxStaleness, units, maxWaitTime, maxWaitUnits, eventDispatcher, registry,
+                coalesceChecks, healthCheckExecutor, scheduledExecutor, damper, false);
+    }
+
+    /**
+     * @deprecated use {@link #builder(List, long, long, TimeUnit)}
+     */
+    @Deprecated
+    public RefreshingHealthCheckAggregator(List<HealthIndicator> indicators, long refreshInterval, long maxStaleness,
+            TimeUnit units, long maxWaitTime, TimeUnit maxWaitUnits, ApplicationEventDispatcher eventDispatcher,
+            Registry registry, boolean coalesceChecks, ExecutorService healthCheckExecutor,
+            ScheduledExecutorService scheduledExecutor, HealthStatusDamper damper, boolean ownsHealthCheckExecutor) {
+        this(builder(indicators, refreshInterval, maxStaleness, units).withMaxWaitTime(maxWaitTime, maxWaitUnits)
+                .withEventDispatcher(eventDispatcher).withRegistry(registry).withCoalescedChecks(coalesceChecks)
+                .withHealthCheckExecutor(healthCheckExecutor, ownsHealthCheckExecutor)
+                .withScheduledExecutor(scheduledExecutor).withDamper(damper));
+    }
+
+    protected RefreshingHealthCheckAggregator(Builder builder) {
+        super(builder.indicators, builder);
+        this.refreshInterval = builder.refreshInterval;
+        this.maxStaleness = TimeUnit.NANOSECONDS.convert(builder.maxStaleness, builder.units);
+        this.units = builder.units;
+        this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(
+                HealthCheckExecutors.daemonThreadFactory("healthIndicatorRefresher"));
+        this.refreshExecutor.execute(this::refresh);
+    }
+
+    /**
+     * @param refreshInterval time between the completion of a refresh and the start of the next one
+     * @param maxStaleness age of the latest snapshot after which check() falls back to a live evaluation
+     */
+    public static Builder builder(List<HealthIndicator> indicators, long refreshInterval, long maxStaleness, 
+            TimeUnit units) {
+        return new Builder(indicators, refreshInterval, maxStaleness, units);
+    }
+
+    @Override
+    public CompletableFuture<HealthCheckStatus> check() {
+        Snapshot current = this.snapshot;
+        if (current == null || current.isStale()) {
+            return super.check(ALL);
+        }
+        return current.future;
+    }
+
+    @Override
+    public CompletableFuture<HealthCheckStatus> check(IndicatorMatcher matcher) {
+        Snapshot current = this.snapshot;
+        if (current == null || current.isStale()) {
+            return super.check(matcher);
+        }
+        // results of the last refresh are unfiltered, so suppression only needs to be re-applied
+        return CompletableFuture.completedFuture(getStatusFromResults(current.results, matcher));
+    }
+
+    /**
+     * Groups are served from the results of the last refresh, unless stale.
+     */
+    @Override
+    protected CompletableFuture<Results> currentResults() {
+        Snapshot current = this.snapshot;
+        if (current == null || current.isStale()) {
+            return super.currentResults();
+        }
+        return CompletableFuture.completedFuture(current.results);
+    }
+
+    /**
+     * Pushed health is applied to the snapshot right away rather than with the next refresh.
+     */
+    @Override
+    protected void onPushed(Results results, HealthCheckStatus status) {
+        Snapshot current = this.snapshot;
+        if (current != null) {
+            this.snapshot = new Snapshot(status, current.createdTime);
+        }
+    }
+
+    private void refresh() {
+        try {
+            // not decided early, as the refreshed results are served to every matcher and group
+            super.check(ALL, null).whenComplete((status, error) -> {
+                if (status != null) {
+                    this.snapshot = new Snapshot(status, System.nanoTime());
+                }
+                scheduleRefresh();
+            });
+        } catch (Exception e) {
+            LOG.warn("Failed to refresh health status", e);
+            scheduleRefresh();
+        }
+    }
+
+    private void scheduleRefresh() {
+        if (!refreshExecutor.isShutdown()) {
+            refreshExecutor.schedule(this::refresh, refreshInterval, units);
+        }
+    }
+
+    private final class Snapshot {
+        private final CompletableFuture<HealthCheckStatus> future;
+        private final Results results;
+        private final long createdTime;
+
+        Snapshot(HealthCheckStatus status, long createdTime) {
+            this.future = CompletableFuture.completedFuture(status);
+            this.results = ((IndexedHealthCheckStatus) status).getResults();
+            this.createdTime = createdTime;
+        }
+
+        boolean isStale() {
+            return System.nanoTime() - createdTime > maxStaleness;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.refreshExecutor.shutdownNow();
+        super.close();
+    }
+
+    public static class Builder extends AbstractBuilder<Builder> {
+        private final long refreshInterval;
+        private final long maxStaleness;
+        private final TimeUnit units;
+        
+        protected Builder(List<HealthIndicator> indicators, long refreshInterval, long maxStaleness, TimeUnit units) {
+            super(indicators);
+            this.refreshInterval = refreshInterval;
+            this.maxStaleness = maxStaleness;
+            this.units = units;
+        }
+        
+        @Override
+        protected Builder self() {
+            return this;
+        }
+        
+        public RefreshingHealthCheckAggregator build() {
+            return new RefreshingHealthCheckAggregator(this);
+        }
+    }
+}
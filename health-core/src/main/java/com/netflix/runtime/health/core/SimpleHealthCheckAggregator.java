@@ -18,18 +18,23 @@ package com.netflix.runtime.health.core;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -43,6 +48,7 @@ import com.netflix.runtime.health.api.HealthIndicator;
 import com.netflix.runtime.health.api.HealthIndicatorCallback;
 import com.netflix.runtime.health.api.IndicatorMatcher;
 import com.netflix.runtime.health.api.IndicatorMatchers;
+import com.netflix.runtime.health.api.PushHealthIndicator;
 import com.netflix.spectator.api.Registry;
 
 /**
@@ -51,14 +57,46 @@ public class SimpleHealthCheckAggregator implements HealthCheckAggregator, Close
     
     private static final Logger LOG = LoggerFactory.getLogger(SimpleHealthCheckAggregator.class);
     private static final int HEALTH_CHECK_EXECUTOR_POOL_SIZE = 3;
+    private static final Health TIMED_OUT = Health.unhealthy(new TimeoutException("Timed out waiting for response"))
+            .withOutcome(Health.Outcome.TIMEOUT).build();
+    // neither healthy nor unhealthy, skipped slots are left out when combining results
+    private static final Health DECIDED = Health.healthy().withDetail(Health.SKIPPED_KEY, "overall health already decided")
+            .withOutcome(Health.Outcome.SKIPPED).build();
+    static final IndicatorMatcher ALL = IndicatorMatchers.build();
     private final List<HealthIndicator> indicators;
     private final ScheduledExecutorService scheduledExecutor;
     private final ExecutorService healthCheckExecutor;
+    private final boolean ownsScheduledExecutor;
+    private final boolean ownsHealthCheckExecutor;
     private final TimeUnit units;
     private final long maxWaitTime;
+    private final List<TimeoutGroup> timeoutGroups;
     private final ApplicationEventDispatcher eventDispatcher;
     private final AtomicBoolean previousHealth;
-    private final Optional<Registry> registry;
+    private final HealthStatusDamper damper;
+    private final HealthCheckMetrics metrics;
+    private final boolean coalesceChecks;
+    private final AtomicReference<CompletableFuture<Results>> inFlight;
+    private final AtomicReferenceArray<NamedHealth> previousResults;
+    private final AtomicReference<IndexedHealthCheckStatus> previousStatus;
+    private final AtomicReference<Results> lastResults;
+    private final AtomicReference<Results> lastOffered;
+    private final HealthIndicatorCallback[] pushListeners;
+    private final AtomicReferenceArray<Health> pushedHealth;
+    private final AtomicReferenceArray<Invocation> invocations;
+    private final boolean[] critical;
+    private final boolean[] nonCritical;
+    private final AtomicReferenceArray<Health> latestResponses;
+    private final int[] order;
+    private final int[] dependencyCounts;
+    private final int[][] dependents;
+    private final Health[] upstreamUnhealthy;
+    private final boolean hasDependencies;
+    private final AtomicInteger stuckInvocations;
+    private final AtomicInteger joinedEvaluations;
+    private volatile boolean[] quarantined;
+    private final AtomicReferenceArray<ExecutorService> dedicatedExecutors;
+    private volatile boolean closed;
 
     public SimpleHealthCheckAggregator(List<HealthIndicator> indicators, long maxWaitTime, TimeUnit units) {
 	    this(indicators, maxWaitTime, units, null);
@@ -71,100 +109,539 @@ public class SimpleHealthCheckAggregator implements HealthCheckAggregator, Close
 
     public SimpleHealthCheckAggregator(List<HealthIndicator> indicators, long maxWaitTime, TimeUnit units,
             ApplicationEventDispatcher eventDispatcher, Registry registry) {
+        this(indicators, builder(indicators).withMaxWaitTime(maxWaitTime, units).withEventDispatcher(eventDispatcher)
+                .withRegistry(registry));
+    }
+
+    /**
+     * @deprecated use {@link #builder(List)} and {@link Builder#withCoalescedChecks(boolean)}
+     */
+    @Deprecated
+    public SimpleHealthCheckAggregator(List<HealthIndicator> indicators, long maxWaitTime, TimeUnit units,
+            ApplicationEventDispatcher eventDispatcher, Registry registry, boolean coalesceChecks) {
+        this(indicators, maxWaitTime, units, eventDispatcher, registry, coalesceChecks, null, null);
+    }
+
+    /**
+     * @deprecated use {@link #builder(List)} and {@link Builder#withHealthCheckExecutor(ExecutorService)}
+     */
+    @Deprecated
+    public SimpleHealthCheckAggregator(List<HealthIndicator> indicators, long maxWaitTime, TimeUnit units,
+            ApplicationEventDispatcher eventDispatcher, Registry registry, boolean coalesceChecks,
+            ExecutorService healthCheckExecutor, ScheduledExecutorService scheduledExecutor) {
+        this(indicators, maxWaitTime, units, eventDispatcher, registry, coalesceChecks, healthCheckExecutor, 
+                scheduledExecutor, null);
+    }
+
+    /**
+     * @deprecated use {@link #builder(List)} and {@link Builder#withDamper(HealthStatusDamper)}
+     */
+    @Deprecated
+    public SimpleHealthCheckAggregator(List<HealthIndicator> indicators, long maxWaitTime, TimeUnit units,
+            ApplicationEventDispatcher eventDispatcher, Registry registry, boolean coalesceChecks,
+            ExecutorService healthCheckExecutor, ScheduledExecutorService scheduledExecutor, HealthStatusDamper damper) {
+        this(indicators, maxWaitTime, units, eventDispatcher, registry, coalesceChecks, healthCheckExecutor, 
+                scheduledExecutor, damper, false);
+    }
+
+    /**
+     * @deprecated use {@link #builder(List)} and {@link Builder#withHealthCheckExecutor(ExecutorService, boolean)}
+     */
+    @Deprecated
+    public SimpleHealthCheckAggregator(List<HealthIndicator> indicators, long maxWaitTime, TimeUnit units,
+            ApplicationEventDispatcher eventDispatcher, Registry registry, boolean coalesceChecks,
+            ExecutorService healthCheckExecutor, ScheduledExecutorService scheduledExecutor, HealthStatusDamper damper,
+            boolean ownsHealthCheckExecutor) {
+        this(indicators, builder(indicators).withMaxWaitTime(maxWaitTime, units).withEventDispatcher(eventDispatcher)
+                .withRegistry(registry).withCoalescedChecks(coalesceChecks)
+                .withHealthCheckExecutor(healthCheckExecutor, ownsHealthCheckExecutor)
+                .withScheduledExecutor(scheduledExecutor).withDamper(damper));
+    }
+
+    /**
+     * @param indicators indicators to aggregate, which subclasses may have wrapped in place of those the builder 
+     *          was created with
+     */
+    protected SimpleHealthCheckAggregator(List<HealthIndicator> indicators, AbstractBuilder<?> builder) {
         this.indicators = new ArrayList<>(indicators);
-        this.maxWaitTime = maxWaitTime;
-        this.units = units;
-        this.scheduledExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {  
-            @Override
-            public Thread newThread(Runnable r) {
-                Thread thread = new Thread(r, "healthIndicatorMonitor");
-                thread.setDaemon(true);
-                return thread;
+        this.maxWaitTime = builder.maxWaitTime;
+        this.units = builder.units;
+        this.pushListeners = new HealthIndicatorCallback[this.indicators.size()];
+        this.pushedHealth = new AtomicReferenceArray<>(this.indicators.size());
+        this.invocations = new AtomicReferenceArray<>(this.indicators.size());
+        this.critical = new boolean[this.indicators.size()];
+        this.nonCritical = new boolean[this.indicators.size()];
+        for (int i = 0; i < this.indicators.size(); i++) {
+            Set<String> tags = this.indicators.get(i).getTags();
+            critical[i] = tags.contains(HealthIndicator.CRITICAL_TAG);
+            nonCritical[i] = tags.contains(HealthIndicator.NON_CRITICAL_TAG);
+        }
+        this.latestResponses = new AtomicReferenceArray<>(this.indicators.size());
+        this.dependencyCounts = new int[this.indicators.size()];
+        this.dependents = new int[this.indicators.size()][];
+        this.upstreamUnhealthy = new Health[this.indicators.size()];
+        this.order = resolveDependencies();
+        this.hasDependencies = Arrays.stream(dependencyCounts).anyMatch(count -> count > 0);
+        this.stuckInvocations = new AtomicInteger();
+        this.joinedEvaluations = new AtomicInteger();
+        this.quarantined = new boolean[this.indicators.size()];
+        this.dedicatedExecutors = new AtomicReferenceArray<>(this.indicators.size());
+        this.timeoutGroups = createTimeoutGroups();
+        this.ownsScheduledExecutor = builder.scheduledExecutor == null;
+        this.scheduledExecutor = ownsScheduledExecutor 
+                ? HealthCheckExecutors.newScheduledExecutor() : builder.scheduledExecutor;
+        this.ownsHealthCheckExecutor = builder.ownsHealthCheckExecutor || builder.healthCheckExecutor == null;
+        this.healthCheckExecutor = builder.healthCheckExecutor == null
+                ? HealthCheckExecutors.newFixedThreadPool(HEALTH_CHECK_EXECUTOR_POOL_SIZE) : builder.healthCheckExecutor;
+        this.eventDispatcher = builder.eventDispatcher;
+        this.previousHealth = new AtomicBoolean();
+        this.damper = builder.damper;
+        this.metrics = builder.registry != null 
+                ? new HealthCheckMetrics(builder.registry, this.indicators, stuckInvocations) : null;
+        this.coalesceChecks = builder.coalesceChecks;
+        this.inFlight = new AtomicReference<>();
+        this.previousResults = new AtomicReferenceArray<>(this.indicators.size());
+        this.previousStatus = new AtomicReference<>();
+        this.lastResults = new AtomicReference<>();
+        this.lastOffered = new AtomicReference<>();
+        subscribeToPushIndicators();
+    }
+
+    public static Builder builder(List<HealthIndicator> indicators) {
+        return new Builder(indicators);
+    }
+    
+    /**
+     * Resolve the {@link HealthIndicator#getDependencies()} of each indicator by name into dependencyCounts and
+     * dependents.
+     * @return indices of the indicators in dependency order, indicators without dependencies in their original order 
+     *          first
+     * @throws IllegalArgumentException if the dependencies are cyclic
+     */
+    private int[] resolveDependencies() {
+        Map<String, List<Integer>> indicesByName = new HashMap<>();
+        for (int i = 0; i < indicators.size(); i++) {
+            indicesByName.computeIfAbsent(indicators.get(i).getName(), name -> new ArrayList<>()).add(i);
+        }
+        List<List<Integer>> dependentLists = new ArrayList<>();
+        for (int i = 0; i < indicators.size(); i++) {
+            dependentLists.add(new ArrayList<>());
+        }
+        for (int i = 0; i < indicators.size(); i++) {
+            for (String name : indicators.get(i).getDependencies()) {
+                List<Integer> matches = indicesByName.get(name);
+                if (matches == null) {
+                    LOG.warn("Health indicator {} depends on unknown indicator {}, ignoring the dependency", 
+                            indicators.get(i).getName(), name);
+                    continue;
+                }
+                for (int dependency : matches) {
+                    dependentLists.get(dependency).add(i);
+                    dependencyCounts[i]++;
+                }
             }
-        });
-        this.healthCheckExecutor = Executors.newFixedThreadPool(HEALTH_CHECK_EXECUTOR_POOL_SIZE, new ThreadFactory() {  
-            @Override
-            public Thread newThread(Runnable r) {
-                Thread thread = new Thread(r, "healthIndicatorExecutor");
-                thread.setDaemon(true);
-                return thread;
+        }
+        for (int i = 0; i < indicators.size(); i++) {
+            dependents[i] = dependentLists.get(i).stream().mapToInt(index -> index).toArray();
+            if (dependents[i].length > 0) {
+                upstreamUnhealthy[i] = Health.unhealthy()
+                        .withDetail(Health.SKIPPED_KEY, "upstream unhealthy: " + indicators.get(i).getName())
+                        .withOutcome(Health.Outcome.SKIPPED).build();
             }
-        });
-        this.eventDispatcher = eventDispatcher;
-        this.previousHealth = new AtomicBoolean();
-        this.registry = Optional.ofNullable(registry);
+        }
+        
+        int[] order = new int[indicators.size()];
+        int[] remaining = dependencyCounts.clone();
+        int count = 0;
+        for (int i = 0; i < indicators.size(); i++) {
+            if (remaining[i] == 0) {
+                order[count++] = i;
+            }
+        }
+        for (int next = 0; next < count; next++) {
+            for (int dependent : dependents[order[next]]) {
+                if (--remaining[dependent] == 0) {
+                    order[count++] = dependent;
+                }
+            }
+        }
+        if (count < order.length) {
+            List<String> cyclic = new ArrayList<>();
+            for (int i = 0; i < indicators.size(); i++) {
+                if (remaining[i] > 0) {
+                    cyclic.add(indicators.get(i).getName());
+                }
+            }
+            throw new IllegalArgumentException("Cyclic dependencies between health indicators " + cyclic);
+        }
+        return order;
+    }
+    
+    /**
+     * {@link PushHealthIndicator}s are subscribed to once. Their latest {@link Health} is used by each check
+     * instead of invoking them, and each change is applied to the results of the last check right away.
+     */
+    private void subscribeToPushIndicators() {
+        for (int i = 0; i < indicators.size(); i++) {
+            if (indicators.get(i) instanceof PushHealthIndicator) {
+                final int index = i;
+                PushHealthIndicator indicator = (PushHealthIndicator) indicators.get(i);
+                pushListeners[i] = health -> onPush(index, health);
+                indicator.addListener(pushListeners[i]);
+                pushedHealth.set(i, indicator.getHealth());
+            }
+        }
     }
     
     @Override
     public CompletableFuture<HealthCheckStatus> check() {
-        return check(IndicatorMatchers.build());
+        return check(ALL);
     }
 
     public CompletableFuture<HealthCheckStatus> check(IndicatorMatcher matcher) {
-        final List<HealthIndicatorCallbackImpl> callbacks = new ArrayList<>(indicators.size());
-        final CompletableFuture<HealthCheckStatus> future = new CompletableFuture<HealthCheckStatus>();
-        final AtomicInteger counter = new AtomicInteger(indicators.size());
+        return check(matcher, matcher);
+    }
+    
+    /**
+     * @param scope see {@link #evaluate(IndicatorMatcher)}
+     */
+    CompletableFuture<HealthCheckStatus> check(IndicatorMatcher matcher, IndicatorMatcher scope) {
+        final long startTime = metrics != null ? System.nanoTime() : 0;
+        final CompletableFuture<Results> results = resultsFor(evaluate(scope), scope);
+        final CompletableFuture<HealthCheckStatus> future = results
+                .thenApply(r -> getStatusFromResults(r, matcher));
         
         if (eventDispatcher != null) {
             future.whenComplete((h, e) -> {
-                if (h != null && previousHealth.compareAndSet(!h.isHealthy(), h.isHealthy())) {
-                    eventDispatcher.publishEvent(new HealthCheckStatusChangedEvent(h));
+                if (h != null) {
+                    publishIfChanged(h, results.join());
                 }
             });
         }
-        
-        List<CompletableFuture<?>> futures = indicators.stream().map(indicator -> {
 
-            HealthIndicatorCallbackImpl callback = new HealthIndicatorCallbackImpl(indicator, !matcher.matches(indicator)) {
-                @Override
-                public void inform(Health status) {
-                    setHealth(status);
-                    if (counter.decrementAndGet() == 0) {
-                        future.complete(getStatusFromCallbacks(callbacks));
-                    }
-                }
-            };
-
-            callbacks.add(callback);
-      
-            return CompletableFuture.runAsync(() -> {
-                try {
-                    indicator.check(callback);
-                } catch (Exception ex) {
-                    callback.inform(Health.unhealthy(ex).build());
-                }
-            }, healthCheckExecutor);
-            
-        }).collect(Collectors.toList());
-                
-        if(indicators.size() == 0) {
-        	future.complete(HealthCheckStatus.create(true, Collections.emptyList()));
+        return doWithFuture(future, startTime);
+    }
+    
+    /**
+     * @param results results the status was computed from, the damper is offered one status per results so that 
+     *          callers sharing an evaluation count as a single check
+     */
+    private void publishIfChanged(HealthCheckStatus status, Results results) {
+        if (damper != null) {
+            if (lastOffered.getAndSet(results) == results) {
+                return;
+            }
+            // published outside of the damper's lock, listeners may check health themselves
+            HealthCheckStatus declared = damper.offer(status, System.nanoTime());
+            if (declared != null) {
+                eventDispatcher.publishEvent(new HealthCheckStatusChangedEvent(declared));
+            }
+        } else if (previousHealth.compareAndSet(!status.isHealthy(), status.isHealthy())) {
+            eventDispatcher.publishEvent(new HealthCheckStatusChangedEvent(status));
+        }
+    }
+
+    /**
+     * Recompute the overall status from the results of the last check with the pushed {@link Health} applied, 
+     * publishing a {@link HealthCheckStatusChangedEvent} if it changed. Without any previous check this is only 
+     * possible if every indicator is a {@link PushHealthIndicator}.
+     */
+    private void onPush(int index, Health health) {
+        pushedHealth.set(index, health);
+        Results last = lastResults.get();
+        Health[] healths = last != null ? last.rawHealths.clone() : new Health[indicators.size()];
+        int unhealthy = 0;
+        for (int i = 0; i < healths.length; i++) {
+            if (pushListeners[i] != null) {
+                healths[i] = pushedHealth.get(i);
+            }
+            if (healths[i] == null) {
+                // no check has completed yet to provide the results of the other indicators
+                return;
+            }
+            if (!healths[i].isHealthy() && !nonCritical[i]) {
+                unhealthy++;
+            }
+        }
+        Results results = new Results(healths, nameResults(healths), unhealthy);
+        lastResults.set(results);
+        HealthCheckStatus status = getStatusFromResults(results, ALL);
+        onPushed(results, status);
+        if (eventDispatcher != null) {
+            publishIfChanged(status, results);
+        }
+    }
+    
+    /**
+     * Called with the results of the last check once a pushed {@link Health} has been applied to them, so that 
+     * results served without a new evaluation can be updated.
+     */
+    protected void onPushed(Results results, HealthCheckStatus status) {
+    }
+    
+    /**
+     * Invoke all {@link HealthIndicator}s, or join the invocation already in flight when coalescing checks.
+     * @return future completed with the {@link Results} of every indicator, unless decided early by a critical one.
+     */
+    protected CompletableFuture<Results> evaluate() {
+        return evaluate(ALL);
+    }
+    
+    /**
+     * @param scope indicators which decide the evaluation as soon as one of them tagged critical reports unhealthy,
+     *          skipping the indicators which haven't responded yet, or null to wait for every indicator. An 
+     *          evaluation in flight is shared whatever its scope, see {@link #resultsFor(CompletableFuture, IndicatorMatcher)}.
+     */
+    private CompletableFuture<Results> evaluate(IndicatorMatcher scope) {
+        return coalesceChecks ? evaluateShared() : evaluateNow(scope);
+    }
+    
+    /**
+     * @return the evaluation in flight, or a new one shared with the callers arriving while it is in flight
+     */
+    private CompletableFuture<Results> evaluateShared() {
+        while (true) {
+            CompletableFuture<Results> current = inFlight.get();
+            if (current != null && !current.isDone()) {
+                return current;
+            }
+            final CompletableFuture<Results> future = new CompletableFuture<>();
+            if (inFlight.compareAndSet(current, future)) {
+                future.whenComplete((results, error) -> inFlight.compareAndSet(future, null));
+                evaluate(future, ALL);
+                return future;
+            }
+        }
+    }
+    
+    /**
+     * Results for a caller interested in the indicators matched by scope. Results decided by a critical indicator 
+     * outside of scope (or any, if scope is null) are missing the responses skipped by that decision, so those are 
+     * replaced by a new evaluation decided by scope only.
+     */
+    private CompletableFuture<Results> resultsFor(CompletableFuture<Results> future, IndicatorMatcher scope) {
+        return future.thenCompose(results -> results.decidedBy < 0 
+                || (scope != null && scope.matches(indicators.get(results.decidedBy)))
+                ? CompletableFuture.completedFuture(results) : evaluateNow(scope));
+    }
+    
+    private CompletableFuture<Results> evaluateNow(IndicatorMatcher scope) {
+        final CompletableFuture<Results> future = new CompletableFuture<>();
+        evaluate(future, scope);
+        return future;
+    }
+
+    private void evaluate(final CompletableFuture<Results> future, final IndicatorMatcher scope) {
+        if (indicators.size() == 0) {
+            future.complete(new Results(new Health[0], new Health[0], 0));
+            return;
         }
         
-        if (maxWaitTime != 0 && units != null) {
-            scheduledExecutor.schedule(new Runnable() {
+        final Evaluation evaluation = new Evaluation(future, scope);
+        for (int index : order) {
+            if (future.isDone()) {
+                // decided by a critical indicator, the remaining indicators are skipped
+                break;
+            }
+            if (dependencyCounts[index] == 0) {
+                // indicators with dependencies are started once their dependencies reported healthy
+                evaluation.start(index);
+            }
+        }
+        
+        if (future.isDone() || timeoutGroups.isEmpty()) {
+            return;
+        }
+        final ScheduledFuture<?>[] timeouts = new ScheduledFuture<?>[timeoutGroups.size()];
+        for (int i = 0; i < timeouts.length; i++) {
+            final TimeoutGroup group = timeoutGroups.get(i);
+            timeouts[i] = scheduledExecutor.schedule(new Runnable() {
                 @Override
                 public void run() {
-                    future.complete(getStatusFromCallbacks(callbacks));
-                    CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).cancel(true);
+                    for (int index : group.indices) {
+                        evaluation.timedOut(index);
+                    }
                 }
-            }, maxWaitTime, units);
+            }, group.timeout, TimeUnit.NANOSECONDS);
         }
+        // don't leave pending timeouts (and the evaluation they reference) queued once every indicator has responded
+        future.whenComplete((results, error) -> {
+            for (ScheduledFuture<?> timeout : timeouts) {
+                timeout.cancel(false);
+            }
+        });
+    }
 
-        return doWithFuture(future);
+    /**
+     * Create a {@link HealthCheckGroup} reporting the health of the indicators matched by matcher, combined according
+     * to rule. Groups share the evaluations of this aggregator, so an indicator included in several groups is still 
+     * invoked once per evaluation.
+     */
+    public HealthCheckGroup group(String name, IndicatorMatcher matcher, HealthCheckGroup.Rule rule) {
+        return new HealthCheckGroup(this, name, matcher, rule);
+    }
+    
+    /**
+     * @return future completed with the {@link Results} reported by {@link HealthCheckGroup}s, by default those 
+     *          of the evaluation in flight, whether or not checks are coalesced, so that checks of several groups 
+     *          arriving together invoke each indicator once
+     */
+    protected CompletableFuture<Results> currentResults() {
+        return evaluateShared();
+    }
+    
+    /**
+     * @param scope see {@link #evaluate(IndicatorMatcher)}
+     * @return the {@link #currentResults()}, unless decided by a critical indicator outside of scope
+     */
+    CompletableFuture<Results> currentResults(IndicatorMatcher scope) {
+        return resultsFor(currentResults(), scope);
+    }
+    
+    /**
+     * @param evaluation evaluation informed of the response, or null for a background refresh, which runs on the 
+     *          indicator's dedicated thread so that it never takes a thread of the shared executor
+     */
+    private Invocation invoke(Evaluation evaluation, int index) {
+        final HealthIndicator indicator = indicators.get(index);
+        final Invocation invocation = new Invocation(evaluation, index);
+        invocations.set(index, invocation);
+        invocation.task = CompletableFuture.runAsync(() -> {
+            if (!invocation.start()) {
+                return;
+            }
+            try {
+                indicator.check(invocation);
+            } catch (Exception ex) {
+                invocation.inform(Health.unhealthy(ex).withOutcome(Health.Outcome.ERROR).build());
+            } finally {
+                invocation.returned();
+            }
+        }, evaluation == null || quarantined[index] ? dedicatedExecutor(index) : healthCheckExecutor);
+        return invocation;
+    }
+    
+    /**
+     * Invoke a non-critical indicator for the next evaluation. The invocation isn't owned by an evaluation, so it 
+     * times out on the indicator's own schedule rather than with the evaluation which started it, after which it 
+     * is counted as stuck and the indicator quarantined like any other invocation.
+     */
+    private void refresh(int index) {
+        Invocation invocation = invoke(null, index);
+        long timeout = timeoutInNanos(index);
+        if (timeout > 0) {
+            invocation.timeout = scheduledExecutor.schedule(invocation::timedOut, timeout, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * @return the most recent response of a non-critical indicator, reported as cached
+     */
+    private Health cached(int index, Health latest) {
+        if (latest.getOutcome() == Health.Outcome.CACHED) {
+            return latest;
+        }
+        Health cached = Health.from(latest).withOutcome(Health.Outcome.CACHED).build();
+        latestResponses.compareAndSet(index, latest, cached);
+        return cached;
+    }
+
+    /**
+     * Group indicators by their timeout (see {@link HealthIndicator#getTimeoutInMillis()}, defaulting to maxWaitTime)
+     * so that a single task per distinct timeout is scheduled for each check. {@link PushHealthIndicator}s are never 
+     * invoked by a check and so never time out. Timeouts are measured from the start of the check, also for 
+     * indicators started once their dependencies responded.
+     */
+    private List<TimeoutGroup> createTimeoutGroups() {
+        Map<Long, List<Integer>> indicesByTimeout = new TreeMap<>();
+        // in dependency order, so that the dependents of an indicator which timed out are skipped
+        for (int i : order) {
+            if (indicators.get(i) instanceof PushHealthIndicator) {
+                continue;
+            }
+            long nanos = timeoutInNanos(i);
+            if (nanos > 0) {
+                indicesByTimeout.computeIfAbsent(nanos, t -> new ArrayList<>()).add(i);
+            }
+        }
+        return indicesByTimeout.entrySet().stream()
+                .map(entry -> new TimeoutGroup(entry.getKey(), entry.getValue().stream().mapToInt(i -> i).toArray()))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * @return timeout of the indicator at index in nanoseconds, or 0 if it never times out
+     */
+    private long timeoutInNanos(int index) {
+        long timeout = indicators.get(index).getTimeoutInMillis();
+        if (timeout > 0) {
+            return TimeUnit.MILLISECONDS.toNanos(timeout);
+        } else if (maxWaitTime != 0 && units != null) {
+            return units.toNanos(maxWaitTime);
+        }
+        return 0;
+    }
+
+    private static class TimeoutGroup {
+        private final long timeout;
+        private final int[] indices;
+
+        TimeoutGroup(long timeout, int[] indices) {
+            this.timeout = timeout;
+            this.indices = indices;
+        }
     }
     
     protected CompletableFuture<HealthCheckStatus> doWithFuture(CompletableFuture<HealthCheckStatus> future) {
+        return doWithFuture(future, System.nanoTime());
+    }
+    
+    private CompletableFuture<HealthCheckStatus> doWithFuture(CompletableFuture<HealthCheckStatus> future, long startTime) {
         return future.whenComplete((status, error) -> {
-            if (status.getHealthResults().stream().filter(s -> s.getErrorMessage().orElse("").contains(TimeoutException.class.getName())).count() > 0) {
-                registry.ifPresent(r -> r.counter("runtime.health", "status", "TIMEOUT").increment());
-            } else {
-                registry.ifPresent(r -> r.counter("runtime.health", "status", status.isHealthy() ? "HEALTHY" : "UNHEALTHY").increment());
+            if (metrics != null) {
+                metrics.recordStatus(status.isHealthy(), hasTimedOutResults(status), startTime);
             }
             LOG.debug("Health Status: {}", status);
         });
     }
+    
+    private static boolean hasTimedOutResults(HealthCheckStatus status) {
+        if (status instanceof IndexedHealthCheckStatus) {
+            return ((IndexedHealthCheckStatus) status).hasTimedOutResults();
+        }
+        for (Health health : status.getHealthResults()) {
+            if (health.getOutcome() == Health.Outcome.TIMEOUT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Name each indicator's {@link Health}, reusing the named instance from the previous evaluation when the
+     * indicator reported the same health so that consecutive statuses share unchanged entries.
+     */
+    private Health[] nameResults(Health[] healths) {
+        Health[] named = new Health[healths.length];
+        for (int i = 0; i < healths.length; i++) {
+            Health health = healths[i];
+            NamedHealth previous = previousResults.get(i);
+            if (previous == null || !previous.isSameAs(health)) {
+                previous = new NamedHealth(health, 
+                        Health.from(health).withDetail(Health.NAME_KEY, indicators.get(i).getName()).build());
+                previousResults.set(i, previous);
+            }
+            named[i] = previous.named;
+        }
+        return named;
+    }
 
+    /**
+     * @deprecated checks are no longer tracked with one callback per indicator, so this is not called by the 
+     *          aggregator and overriding it has no effect. Override {@link #getStatusFromResults(Results, IndicatorMatcher)} 
+     *          instead.
+     */
+    @Deprecated
 	protected HealthCheckStatus getStatusFromCallbacks(final List<HealthIndicatorCallbackImpl> callbacks) {
 	    List<Health> healths = new ArrayList<>();
 	    List<Health> suppressedHealths = new ArrayList<>();  
@@ -184,7 +661,12 @@ public class SimpleHealthCheckAggregator implements HealthCheckAggregator, Close
 		    .reduce(true, (a,b) -> a && b); 
 	    return HealthCheckStatus.create(isHealthy, healths, suppressedHealths);
 	}
-	     
+	
+    /**
+     * @deprecated only used by {@link #getStatusFromCallbacks(List)}, indicators are now informed through 
+     *          callbacks bound to their slot in an evaluation
+     */
+    @Deprecated
     abstract class HealthIndicatorCallbackImpl implements HealthIndicatorCallback {
         private volatile Health health;
         private final HealthIndicator indicator;
@@ -200,11 +682,7 @@ public class SimpleHealthCheckAggregator implements HealthCheckAggregator, Close
         }
         
         public Health getHealthOrTimeout() {
-            return health != null 
-                ? health
-                : Health
-                    .unhealthy(new TimeoutException("Timed out waiting for response"))
-                    .build();
+            return health != null ? health : TIMED_OUT;
         }
         
         public HealthIndicator getIndicator() {
@@ -216,9 +694,652 @@ public class SimpleHealthCheckAggregator implements HealthCheckAggregator, Close
         }
     }
 
+    /**
+     * Create the {@link HealthCheckStatus} for results returned by {@link #evaluate()}. Results of {@link HealthIndicator}s
+     * not matched by the {@link IndicatorMatcher} are reported as suppressed and do not affect the overall health.
+     * If the results and their partitioning are unchanged, the previous status (and its version) is returned.
+     */
+	protected HealthCheckStatus getStatusFromResults(final Results results, final IndicatorMatcher matcher) {
+	    return getStatusFromResults(results, matcher, HealthCheckGroup.Rule.ALL_HEALTHY, previousStatus);
+	}
+	
+	/**
+	 * @param rule how the results of the matched indicators are combined into the overall health
+	 * @param previousStatus previous status of the caller, replaced unless unchanged
+	 */
+	HealthCheckStatus getStatusFromResults(final Results results, final IndicatorMatcher matcher, 
+	        final HealthCheckGroup.Rule rule, final AtomicReference<IndexedHealthCheckStatus> previousStatus) {
+	    boolean[] suppressed = null;
+	    int unhealthy = results.unhealthy;
+	    int healthy = 0;
+	    int criticalUnhealthy = 0;
+	    boolean timedOut = false;
+	    for (int i = 0; i < results.healths.length; i++) {
+	        boolean matched = matcher.matches(indicators.get(i));
+	        if (!matched) {
+	            if (suppressed == null) {
+	                suppressed = new boolean[results.healths.length];
+	            }
+	            suppressed[i] = true;
+	            if (!results.rawHealths[i].isHealthy() && !nonCritical[i]) {
+	                unhealthy--;
+	            }
+	            continue;
+	        }
+	        if (results.rawHealths[i].getOutcome() == Health.Outcome.TIMEOUT) {
+	            timedOut = true;
+	        }
+	        if (nonCritical[i] || results.rawHealths[i] == DECIDED) {
+	            continue;
+	        }
+	        if (results.rawHealths[i].isHealthy()) {
+	            healthy++;
+	        } else if (critical[i]) {
+	            criticalUnhealthy++;
+	        }
+	    }
+	    boolean isHealthy;
+	    switch (rule) {
+	    case CRITICAL_HEALTHY:
+	        isHealthy = criticalUnhealthy == 0;
+	        break;
+	    case ANY_HEALTHY:
+	        isHealthy = healthy > 0 || unhealthy == 0;
+	        break;
+	    default:
+	        isHealthy = unhealthy == 0;
+	    }
+	    while (true) {
+	        IndexedHealthCheckStatus previous = previousStatus.get();
+	        if (previous != null && previous.isSameAs(results, suppressed)) {
+	            return previous;
+	        }
+	        IndexedHealthCheckStatus status = new IndexedHealthCheckStatus(isHealthy, 
+	                previous == null ? 1 : previous.getVersion() + 1, results, suppressed, timedOut);
+	        if (previousStatus.compareAndSet(previous, status)) {
+	            return status;
+	        }
+	    }
+	}
+	
+	private static class NamedHealth {
+	    private final Health health;
+	    private final Health named;
+	    
+	    NamedHealth(Health health, Health named) {
+	        this.health = health;
+	        this.named = named;
+	    }
+	    
+	    boolean isSameAs(Health other) {
+	        return health == other || (health.isHealthy() == other.isHealthy() && health.getOutcome() == other.getOutcome()
+	                && health.getDetails().equals(other.getDetails()));
+	    }
+	}
+	
+	/**
+	 * Results of one evaluation of the {@link HealthIndicator}s, indexed in the order of the indicators.
+	 */
+	protected static final class Results {
+	    final Health[] rawHealths;
+	    final Health[] healths;
+	    final int unhealthy;
+	    // index of the critical indicator which decided the evaluation early, or -1 if every indicator was evaluated
+	    final int decidedBy;
+	    
+	    Results(Health[] rawHealths, Health[] healths, int unhealthy) {
+	        this(rawHealths, healths, unhealthy, -1);
+	    }
+	    
+	    Results(Health[] rawHealths, Health[] healths, int unhealthy, int decidedBy) {
+	        this.rawHealths = rawHealths;
+	        this.healths = healths;
+	        this.unhealthy = unhealthy;
+	        this.decidedBy = decidedBy;
+	    }
+	}
+	
+	/**
+	 * State of a single evaluation: one slot per indicator and live counts of the outstanding and unhealthy
+	 * indicators, so that the overall health is known as soon as the last indicator responds. Each indicator with
+	 * dependencies is started by the response of its last dependency, or skipped by the first unhealthy one. An 
+	 * unhealthy critical indicator within the scope of the evaluation skips every indicator still outstanding.
+	 */
+	private final class Evaluation {
+	    private final AtomicReferenceArray<Health> slots;
+	    private final AtomicInteger outstanding;
+	    private final AtomicInteger unhealthy;
+	    private final CompletableFuture<Results> future;
+	    private final AtomicReferenceArray<Invocation> owned;
+	    private final AtomicIntegerArray pendingDependencies;
+	    private final IndicatorMatcher scope;
+	    private volatile int decidedBy = -1;
+	    
+	    Evaluation(CompletableFuture<Results> future, IndicatorMatcher scope) {
+	        this.slots = new AtomicReferenceArray<>(indicators.size());
+	        this.outstanding = new AtomicInteger(indicators.size());
+	        this.unhealthy = new AtomicInteger();
+	        this.future = future;
+	        this.owned = new AtomicReferenceArray<>(indicators.size());
+	        this.pendingDependencies = hasDependencies ? new AtomicIntegerArray(dependencyCounts) : null;
+	        this.scope = scope;
+	    }
+	    
+	    /**
+	     * Invoke the indicator at index, or join its outstanding invocation unless that timed out. An indicator still
+	     * blocked in an invocation which timed out is reported as timed out without invoking it again. Push and 
+	     * non-critical indicators report their latest {@link Health} right away.
+	     */
+	    void start(int index) {
+	        if (slots.get(index) != null) {
+	            return;
+	        }
+	        if (pushListeners[index] != null) {
+	            inform(index, pushedHealth.get(index), 0);
+	            return;
+	        }
+	        Invocation current = invocations.get(index);
+	        if (nonCritical[index]) {
+	            Health latest = latestResponses.get(index);
+	            if (latest != null) {
+	                inform(index, cached(index, latest), 0);
+	                if (current == null || !current.isOutstanding()) {
+	                    // refreshed in the background for the next check
+	                    refresh(index);
+	                }
+	                return;
+	            }
+	        }
+	        if (current != null) {
+	            if (current.join(this)) {
+	                // never more than one outstanding invocation per indicator
+	                owned.set(index, current);
+	                return;
+	            }
+	            if (current.isStuck()) {
+	                inform(index, TIMED_OUT, 0);
+	                return;
+	            }
+	        }
+	        owned.set(index, invoke(this, index));
+	    }
+	    
+	    void timedOut(int index) {
+	        Invocation invocation = owned.get(index);
+	        if (invocation != null && invocation.evaluation == this) {
+	            invocation.task.cancel(true);
+	            invocation.timedOut();
+	        }
+	        inform(index, TIMED_OUT, 0);
+	    }
+	    
+	    /**
+	     * Record the health of the indicator at index, unless it already responded (e.g. after a timeout).
+	     * @param invokeTime time at which the indicator was invoked, or 0 if the health isn't its response 
+	     */
+	    void inform(int index, Health health, long invokeTime) {
+	        if (health == null) {
+	            health = TIMED_OUT;
+	        }
+	        if (!slots.compareAndSet(index, null, health)) {
+	            return;
+	        }
+	        leave(index);
+	        if (metrics != null && invokeTime != 0) {
+	            metrics.responded(index, invokeTime);
+	        }
+	        if (!recorded(index, health)) {
+	            return;
+	        }
+	        if (!health.isHealthy() && critical[index] && scope != null && scope.matches(indicators.get(index))) {
+	            decide(index);
+	            return;
+	        }
+	        for (int dependent : dependents[index]) {
+	            if (!health.isHealthy()) {
+	                inform(dependent, upstreamUnhealthy[index], 0);
+	            } else if (pendingDependencies.decrementAndGet(dependent) == 0) {
+	                start(dependent);
+	            }
+	        }
+	    }
+	    
+	    /**
+	     * Skip every indicator which hasn't responded yet, as the overall health can no longer change. Invocations
+	     * made by this evaluation which haven't started yet are cancelled.
+	     */
+	    private void decide(int index) {
+	        decidedBy = index;
+	        for (int i = 0; i < slots.length(); i++) {
+	            if (slots.get(i) == null && slots.compareAndSet(i, null, DECIDED)) {
+	                Invocation invocation = owned.get(i);
+	                if (invocation != null && invocation.evaluation == this) {
+	                    invocation.skip();
+	                }
+	                leave(i);
+	                recorded(i, DECIDED);
+	            }
+	        }
+	    }
+	    
+	    /**
+	     * Stop waiting for the invocation joined for the indicator at index once its slot is filled, so that an
+	     * invocation which never responds doesn't retain this evaluation.
+	     */
+	    private void leave(int index) {
+	        Invocation invocation = owned.get(index);
+	        if (invocation != null && invocation.evaluation != this) {
+	            invocation.leave(this);
+	        }
+	    }
+	    
+	    /**
+	     * @return false if this completed the evaluation
+	     */
+	    private boolean recorded(int index, Health health) {
+	        if (!health.isHealthy() && !nonCritical[index]) {
+	            unhealthy.incrementAndGet();
+	        }
+	        if (metrics != null) {
+	            metrics.recordOutcome(index, health.getOutcome());
+	        }
+	        if (outstanding.decrementAndGet() > 0) {
+	            return true;
+	        }
+	        Health[] healths = new Health[slots.length()];
+	        int unhealthyCount = unhealthy.get();
+	        for (int i = 0; i < healths.length; i++) {
+	            healths[i] = slots.get(i);
+	            if (pushListeners[i] != null && healths[i].getOutcome() != Health.Outcome.SKIPPED) {
+	                // a push that arrived during the evaluation must not be undone by its results
+	                Health latest = pushedHealth.get(i);
+	                if (!nonCritical[i]) {
+	                    unhealthyCount += (latest.isHealthy() ? 0 : 1) - (healths[i].isHealthy() ? 0 : 1);
+	                }
+	                healths[i] = latest;
+	            }
+	        }
+	        Results results = new Results(healths, nameResults(healths), unhealthyCount, decidedBy);
+	        if (decidedBy < 0) {
+	            // pushed health is only applied to complete results
+	            lastResults.set(results);
+	        }
+	        future.complete(results);
+	        return false;
+	    }
+	}
+	     
+    /**
+     * A single invocation of an indicator, informing the evaluation that made it and any evaluations which joined it
+     * while it was outstanding. An invocation is outstanding until it responds, or until it timed out and either was
+     * never started or its indicator returned from check(). Only an invocation which hasn't timed out can be joined.
+     * 
+     * An invocation whose indicator hasn't returned from check() when it times out is stuck: it remains the 
+     * indicator's outstanding invocation, so that later evaluations report a timeout rather than taking another 
+     * thread, and its indicator is quarantined. A quarantined indicator is invoked on a dedicated thread of its own, 
+     * so that it can't take more than one thread of the shared executor, until one of its invocations returns 
+     * from check() without getting stuck.
+     */
+    private final class Invocation implements HealthIndicatorCallback {
+        private final Evaluation evaluation;
+        private final int index;
+        private final long submitTime;
+        private List<Evaluation> joined;
+        private boolean responded;
+        private boolean started;
+        private boolean returned;
+        private boolean cancelled;
+        private boolean timedOut;
+        private boolean stuck;
+        private long invokeTime;
+        private CompletableFuture<?> task;
+        // timeout of a background refresh
+        private volatile ScheduledFuture<?> timeout;
+        
+        Invocation(Evaluation evaluation, int index) {
+            this.evaluation = evaluation;
+            this.index = index;
+            if (metrics != null) {
+                metrics.submitted();
+                this.submitTime = System.nanoTime();
+            } else {
+                this.submitTime = 0;
+            }
+        }
+        
+        /**
+         * @return false if the invocation was already cancelled by a timeout
+         */
+        synchronized boolean start() {
+            if (cancelled) {
+                return false;
+            }
+            started = true;
+            if (metrics != null) {
+                invokeTime = metrics.invoked(index, submitTime);
+            }
+            return true;
+        }
+        
+        void returned() {
+            boolean wasStuck;
+            synchronized (this) {
+                returned = true;
+                wasStuck = stuck;
+                if (timedOut) {
+                    release();
+                }
+            }
+            ScheduledFuture<?> pending = timeout;
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            if (wasStuck) {
+                stuckInvocations.decrementAndGet();
+            } else if (quarantined[index]) {
+                unquarantine(index);
+            }
+            if (metrics != null) {
+                metrics.returned();
+            }
+        }
+        
+        /**
+         * Called when the evaluation that made this invocation times out, or for a background refresh once its own
+         * timeout elapsed. An invocation which wasn't started yet is never run by the executor.
+         */
+        void timedOut() {
+            boolean becameStuck = false;
+            synchronized (this) {
+                timedOut = true;
+                if (!started) {
+                    cancelled = true;
+                    if (metrics != null) {
+                        metrics.dequeued();
+                    }
+                } else if (!returned && !responded) {
+                    stuck = becameStuck = true;
+                }
+                if (cancelled || returned) {
+                    release();
+                }
+            }
+            if (becameStuck) {
+                stuckInvocations.incrementAndGet();
+                quarantine(index);
+            }
+        }
+        
+        synchronized boolean isOutstanding() {
+            return !responded && !cancelled && !(timedOut && returned);
+        }
+        
+        synchronized boolean isStuck() {
+            return stuck && !returned;
+        }
+        
+        /**
+         * Cancel the invocation if it hasn't started yet and no other evaluation joined it.
+         */
+        synchronized void skip() {
+            if (!started && !cancelled && (joined == null || joined.isEmpty())) {
+                cancelled = true;
+                if (metrics != null) {
+                    metrics.dequeued();
+                }
+                release();
+            }
+        }
+        
+        /**
+         * @return true if the evaluation will be informed of this invocation's response, false if the invocation
+         *          is no longer outstanding or timed out
+         */
+        synchronized boolean join(Evaluation other) {
+            if (!isOutstanding() || timedOut) {
+                return false;
+            }
+            if (joined == null) {
+                joined = new ArrayList<>(1);
+            }
+            joined.add(other);
+            joinedEvaluations.incrementAndGet();
+            return true;
+        }
+        
+        synchronized void leave(Evaluation other) {
+            if (joined != null && joined.remove(other)) {
+                joinedEvaluations.decrementAndGet();
+            }
+        }
+
+        /**
+         * Stop sharing this invocation once it's no longer outstanding, so that it isn't retained
+         */
+        private void release() {
+            invocations.compareAndSet(index, this, null);
+        }
+
+        @Override
+        public void inform(Health health) {
+            List<Evaluation> others;
+            long time;
+            synchronized (this) {
+                if (responded) {
+                    return;
+                }
+                responded = true;
+                release();
+                others = joined;
+                joined = null;
+                time = invokeTime;
+            }
+            if (nonCritical[index] && health != null) {
+                latestResponses.set(index, health);
+            }
+            if (evaluation != null) {
+                evaluation.inform(index, health, time);
+            }
+            if (others != null) {
+                joinedEvaluations.addAndGet(-others.size());
+                for (Evaluation other : others) {
+                    other.inform(index, health, 0);
+                }
+            }
+        }
+    }
+    
+    private void quarantine(int index) {
+        synchronized (invocations) {
+            if (quarantined[index]) {
+                return;
+            }
+            boolean[] updated = quarantined.clone();
+            updated[index] = true;
+            quarantined = updated;
+        }
+        LOG.warn("Health indicator {} is blocked past its timeout, invoking it on a dedicated thread until it returns in time", 
+                indicators.get(index).getName());
+    }
+    
+    private void unquarantine(int index) {
+        synchronized (invocations) {
+            if (!quarantined[index]) {
+                return;
+            }
+            boolean[] updated = quarantined.clone();
+            updated[index] = false;
+            quarantined = updated;
+        }
+        LOG.info("Health indicator {} returned in time, invoking it on the shared executor again", 
+                indicators.get(index).getName());
+    }
+    
+    /**
+     * @return single thread executor of the indicator at index, whose thread only lives while it is used
+     */
+    private ExecutorService dedicatedExecutor(int index) {
+        ExecutorService executor = dedicatedExecutors.get(index);
+        if (executor == null) {
+            synchronized (invocations) {
+                executor = dedicatedExecutors.get(index);
+                if (executor == null) {
+                    executor = HealthCheckExecutors.newDedicatedExecutor(indicators.get(index).getName());
+                    if (closed) {
+                        executor.shutdown();
+                    }
+                    dedicatedExecutors.set(index, executor);
+                }
+            }
+        }
+        return executor;
+    }
+    
+    /**
+     * @return number of invocations of {@link HealthIndicator}s which timed out and are still blocked in check()
+     */
+    public int getStuckInvocationCount() {
+        return stuckInvocations.get();
+    }
+
+    /**
+     * @return number of evaluations waiting for the response of an invocation made by another evaluation
+     */
+    int getJoinedEvaluationCount() {
+        return joinedEvaluations.get();
+    }
+
     @Override
     public void close() throws IOException {
-        this.healthCheckExecutor.shutdown();
-        this.scheduledExecutor.shutdown();
+        for (int i = 0; i < pushListeners.length; i++) {
+            if (pushListeners[i] != null) {
+                ((PushHealthIndicator) indicators.get(i)).removeListener(pushListeners[i]);
+            }
+        }
+        if (ownsHealthCheckExecutor) {
+            this.healthCheckExecutor.shutdown();
+        }
+        synchronized (invocations) {
+            closed = true;
+            for (int i = 0; i < dedicatedExecutors.length(); i++) {
+                if (dedicatedExecutors.get(i) != null) {
+                    dedicatedExecutors.get(i).shutdown();
+                }
+            }
+        }
+        if (ownsScheduledExecutor) {
+            this.scheduledExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Settings shared by all aggregators, extended by the builders of subclasses with their own settings. 
+     * Executors provided by the caller are not shut down when the aggregator is closed, unless stated otherwise.
+     */
+    public static abstract class AbstractBuilder<B extends AbstractBuilder<B>> {
+        protected final List<HealthIndicator> indicators;
+        private long maxWaitTime;
+        private TimeUnit units;
+        private ApplicationEventDispatcher eventDispatcher;
+        private Registry registry;
+        private boolean coalesceChecks;
+        private ExecutorService healthCheckExecutor;
+        private boolean ownsHealthCheckExecutor;
+        private ScheduledExecutorService scheduledExecutor;
+        private HealthStatusDamper damper;
+        
+        protected AbstractBuilder(List<HealthIndicator> indicators) {
+            this.indicators = indicators;
+        }
+        
+        protected abstract B self();
+        
+        /**
+         * Time after which an indicator without its own {@link HealthIndicator#getTimeoutInMillis()} is reported 
+         * as timed out. Defaults to 0, waiting for every indicator to respond.
+         */
+        public B withMaxWaitTime(long maxWaitTime, TimeUnit units) {
+            this.maxWaitTime = maxWaitTime;
+            this.units = units;
+            return self();
+        }
+        
+        /**
+         * Dispatcher of {@link HealthCheckStatusChangedEvent}s. Defaults to none.
+         */
+        public B withEventDispatcher(ApplicationEventDispatcher eventDispatcher) {
+            this.eventDispatcher = eventDispatcher;
+            return self();
+        }
+        
+        /**
+         * Registry for the metrics of {@link HealthCheckMetrics}. Defaults to none.
+         */
+        public B withRegistry(Registry registry) {
+            this.registry = registry;
+            return self();
+        }
+        
+        /**
+         * If true, calls to check() that arrive while an invocation of the {@link HealthIndicator}s is already in 
+         * flight share the results of that invocation rather than invoking every indicator again. Each caller still 
+         * has its own {@link IndicatorMatcher} applied to the shared results. Defaults to false.
+         */
+        public B withCoalescedChecks(boolean coalesceChecks) {
+            this.coalesceChecks = coalesceChecks;
+            return self();
+        }
+        
+        /**
+         * Executor on which {@link HealthIndicator}s are invoked, see {@link HealthCheckExecutors}. Defaults to a 
+         * pool of 3 threads, shut down when the aggregator is closed.
+         */
+        public B withHealthCheckExecutor(ExecutorService healthCheckExecutor) {
+            return withHealthCheckExecutor(healthCheckExecutor, false);
+        }
+        
+        /**
+         * @param shutdownOnClose if true, the executor is shut down when the aggregator is closed, for executors 
+         *          created on behalf of the aggregator
+         */
+        public B withHealthCheckExecutor(ExecutorService healthCheckExecutor, boolean shutdownOnClose) {
+            this.healthCheckExecutor = healthCheckExecutor;
+            this.ownsHealthCheckExecutor = shutdownOnClose;
+            return self();
+        }
+        
+        /**
+         * Executor used to time out {@link HealthIndicator}s. Defaults to a single threaded scheduler, shut down 
+         * when the aggregator is closed.
+         */
+        public B withScheduledExecutor(ScheduledExecutorService scheduledExecutor) {
+            this.scheduledExecutor = scheduledExecutor;
+            return self();
+        }
+        
+        /**
+         * Decides when a change of health is published as a {@link HealthCheckStatusChangedEvent}, see 
+         * {@link HealthStatusDamper}. Defaults to none, publishing every change.
+         */
+        public B withDamper(HealthStatusDamper damper) {
+            this.damper = damper;
+            return self();
+        }
+    }
+    
+    public static class Builder extends AbstractBuilder<Builder> {
+        
+        protected Builder(List<HealthIndicator> indicators) {
+            super(indicators);
+        }
+        
+        @Override
+        protected Builder self() {
+            return this;
+        }
+        
+        public SimpleHealthCheckAggregator build() {
+            return new SimpleHealthCheckAggregator(indicators, this);
+        }
     }
-}
\ No newline at end of file
+}
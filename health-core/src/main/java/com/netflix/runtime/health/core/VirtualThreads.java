@@ -0,0 +1,35 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Access to virtual threads. This is the implementation for JDKs without virtual thread support;
+ * the JDK 21 implementation is packaged under META-INF/versions/21 of this multi-release jar.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return an executor starting a new virtual thread per task, or null if virtual threads are not supported
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor(String name) {
+        return null;
+    }
+}
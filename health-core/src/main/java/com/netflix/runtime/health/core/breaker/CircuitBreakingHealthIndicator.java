@@ -0,0 +1,238 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core.breaker;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+
+/**
+ * HealthIndicator wrapper implementation that stops invoking a delegate which keeps failing, so that an indicator 
+ * whose dependency is down doesn't occupy a health check thread until it times out on every check.
+ * 
+ * The circuit opens after a number of consecutive failures, where a failure is an unhealthy response, an exception,
+ * or a call that takes longer than the call timeout (detected on response, or on a later check if the delegate 
+ * never responds). While open, the last unhealthy response is returned immediately with the detail 
+ * {@value #STATE_KEY}=OPEN and outcome {@link Health.Outcome#CACHED}. Once the open interval has elapsed a single 
+ * call is let through as a probe (half-open). A healthy probe closes the circuit, a failed probe opens it again for 
+ * twice the previous interval, up to the maximum open interval. The response of a probe carries the detail
+ * {@value #STATE_KEY}=HALF_OPEN, as do calls short-circuited while the probe is outstanding.
+ * 
+ * If created with a {@link Registry} the state is reported by the gauge runtime.health.circuitBreaker.state 
+ * (0 closed, 1 open, 2 half-open) and short-circuited calls by the counter 
+ * runtime.health.circuitBreaker.shortCircuited, both tagged with the indicator name.
+ */
+public class CircuitBreakingHealthIndicator implements HealthIndicator {
+    
+    public static final String STATE_KEY = "circuitBreaker";
+    
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+    
+    private static class Call {
+        private final long startTime;
+        private final boolean probe;
+        private boolean done;
+        
+        Call(long startTime, boolean probe) {
+            this.startTime = startTime;
+            this.probe = probe;
+        }
+    }
+    
+    private final HealthIndicator delegate;
+    private final int failureThreshold;
+    private final long callTimeout;
+    private final long openInterval;
+    private final long maxOpenInterval;
+    private final Counter shortCircuited;
+    
+    // guarded by this
+    private State state = State.CLOSED;
+    private int failures;
+    private long backoff;
+    private long openUntil;
+    private Health shortCircuitHealth;
+    // calls awaiting a response, oldest first
+    private final Deque<Call> inFlight = new ArrayDeque<>();
+    
+    private CircuitBreakingHealthIndicator(HealthIndicator delegate, int failureThreshold, long callTimeout, 
+            long openInterval, long maxOpenInterval, TimeUnit units, Registry registry) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+        if (openInterval <= 0 || maxOpenInterval < openInterval) {
+            throw new IllegalArgumentException("openInterval must be positive and not greater than maxOpenInterval");
+        }
+        this.delegate = delegate;
+        this.failureThreshold = failureThreshold;
+        this.callTimeout = units.toNanos(callTimeout);
+        this.openInterval = units.toNanos(openInterval);
+        this.maxOpenInterval = units.toNanos(maxOpenInterval);
+        this.backoff = this.openInterval;
+        this.shortCircuited = registry != null 
+                ? registry.counter("runtime.health.circuitBreaker.shortCircuited", "indicator", delegate.getName()) : null;
+    }
+
+    @Override
+    public void check(HealthIndicatorCallback callback) {
+        final Call call;
+        final boolean probe;
+        Health shortCircuit = null;
+        synchronized (this) {
+            long now = System.nanoTime();
+            while (callTimeout > 0 && !inFlight.isEmpty() && now - inFlight.peekFirst().startTime > callTimeout) {
+                // the delegate never responded
+                inFlight.pollFirst().done = true;
+                onFailure(timedOut(), now);
+            }
+            if (state == State.OPEN && now - openUntil >= 0) {
+                state = State.HALF_OPEN;
+            }
+            probe = state == State.HALF_OPEN;
+            if (state == State.OPEN || (probe && !inFlight.isEmpty())) {
+                shortCircuit = probe ? withState(shortCircuitHealth, State.HALF_OPEN) : shortCircuitHealth;
+                call = null;
+            } else {
+                call = new Call(now, probe);
+                if (callTimeout > 0 || probe) {
+                    // without a call timeout only the probe needs tracking, as a hung call never counts as failed
+                    inFlight.addLast(call);
+                }
+            }
+        }
+        if (shortCircuit != null) {
+            if (shortCircuited != null) {
+                shortCircuited.increment();
+            }
+            callback.inform(shortCircuit);
+            return;
+        }
+        try {
+            delegate.check(h -> {
+                onResponse(call, h);
+                callback.inform(probe ? withState(h, State.HALF_OPEN) : h);
+            });
+        } catch (RuntimeException e) {
+            Health health = Health.unhealthy(e).withOutcome(Health.Outcome.ERROR).build();
+            onResponse(call, health);
+            callback.inform(probe ? withState(health, State.HALF_OPEN) : health);
+        }
+    }
+    
+    private synchronized void onResponse(Call call, Health health) {
+        if (call.done) {
+            // already counted as timed out, or responded more than once
+            return;
+        }
+        call.done = true;
+        inFlight.remove(call);
+        long now = System.nanoTime();
+        if (!health.isHealthy()) {
+            onFailure(health, now);
+        } else if (callTimeout > 0 && now - call.startTime > callTimeout) {
+            onFailure(timedOut(), now);
+        } else if (state == State.CLOSED || call.probe) {
+            // a late success of a call made before the circuit opened doesn't close it, only a probe does
+            state = State.CLOSED;
+            failures = 0;
+            backoff = openInterval;
+        }
+    }
+    
+    private void onFailure(Health health, long now) {
+        failures++;
+        if (state == State.HALF_OPEN) {
+            backoff = Math.min(backoff * 2, maxOpenInterval);
+            open(health, now);
+        } else if (state == State.OPEN || failures >= failureThreshold) {
+            open(health, now);
+        }
+    }
+    
+    private void open(Health health, long now) {
+        if (state != State.OPEN) {
+            openUntil = now + backoff;
+        }
+        state = State.OPEN;
+        shortCircuitHealth = Health.from(health).withDetail(STATE_KEY, State.OPEN.name())
+                .withOutcome(Health.Outcome.CACHED).build();
+    }
+    
+    private static Health withState(Health health, State state) {
+        return Health.from(health).withDetail(STATE_KEY, state.name()).build();
+    }
+    
+    private static Health timedOut() {
+        return Health.unhealthy(new TimeoutException("Timed out waiting for response"))
+                .withOutcome(Health.Outcome.TIMEOUT).build();
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @param failureThreshold number of consecutive failures after which the circuit opens
+     * @param callTimeout duration after which a call is considered failed, or 0 to only count unhealthy responses
+     * @param openInterval duration for which the circuit is first kept open
+     * @param maxOpenInterval maximum duration for which the circuit is kept open after repeated failed probes
+     */
+    public static CircuitBreakingHealthIndicator wrap(HealthIndicator delegate, int failureThreshold, long callTimeout,
+            long openInterval, long maxOpenInterval, TimeUnit units) {
+        return wrap(delegate, failureThreshold, callTimeout, openInterval, maxOpenInterval, units, null);
+    }
+
+    public static CircuitBreakingHealthIndicator wrap(HealthIndicator delegate, int failureThreshold, long callTimeout,
+            long openInterval, long maxOpenInterval, TimeUnit units, Registry registry) {
+        CircuitBreakingHealthIndicator indicator = new CircuitBreakingHealthIndicator(delegate, failureThreshold, 
+                callTimeout, openInterval, maxOpenInterval, units, registry);
+        if (registry != null) {
+            registry.gauge(registry.createId("runtime.health.circuitBreaker.state", "indicator", delegate.getName()),
+                    indicator, i -> i.getState().ordinal());
+        }
+        return indicator;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public long getTimeoutInMillis() {
+        return delegate.getTimeoutInMillis();
+    }
+
+    @Override
+    public Set<String> getTags() {
+        return delegate.getTags();
+    }
+
+    @Override
+    public Set<String> getDependencies() {
+        return delegate.getDependencies();
+    }
+}
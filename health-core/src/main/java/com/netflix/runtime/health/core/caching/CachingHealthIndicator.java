@@ -12,8 +12,12 @@
  */
 package com.netflix.runtime.health.core.caching;
 
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.netflix.runtime.health.api.Health;
 import com.netflix.runtime.health.api.HealthIndicator;
@@ -21,6 +25,13 @@ import com.netflix.runtime.health.api.HealthIndicatorCallback;
 
 /**
  * HealthIndicator wrapper implementation that caches the response
+ * 
+ * Only one call to the delegate is in flight at a time. Callers arriving while it is in flight receive the 
+ * previously cached value or, if nothing has been cached yet, wait for the in-flight call to complete.
+ * 
+ * When created with a refresh-ahead factor below 1, a call made after that fraction of the cache interval has 
+ * elapsed receives the cached value and the delegate is refreshed in the background, so that callers don't pay 
+ * the delegate's latency once the entry expires. 
  *
  * @author elandau
  *
@@ -28,11 +39,13 @@ import com.netflix.runtime.health.api.HealthIndicatorCallback;
 public class CachingHealthIndicator implements HealthIndicator {
     private static class CacheEntry {
         private final long expirationTime;
+        private final long refreshTime;
         private final Health health;
 
-        CacheEntry(long expirationTime, Health health) {
+        CacheEntry(long expirationTime, long refreshTime, Health health) {
             super();
             this.expirationTime = expirationTime;
+            this.refreshTime = refreshTime;
             this.health = health;
         }
 
@@ -40,21 +53,49 @@ public class CachingHealthIndicator implements HealthIndicator {
             return expirationTime;
         }
 
+        long getRefreshTime() {
+            return refreshTime;
+        }
+
         Health getHealth() {
             return health;
         }
     }
 
-    private final AtomicBoolean busy;
+    private static class Load extends CompletableFuture<Health> {
+        private final long startTime;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Load(long startTime) {
+            this.startTime = startTime;
+        }
+
+        /**
+         * @return true if the caller is the one to call the delegate for this load
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    private final AtomicReference<Load> inFlight;
     private final long interval;
+    private final long refreshAheadInterval;
+    private final Executor refreshExecutor;
     private final HealthIndicator delegate;
     private volatile CacheEntry cachedHealth;
 
-    private CachingHealthIndicator(HealthIndicator delegate, long interval, TimeUnit units) {
+    private CachingHealthIndicator(HealthIndicator delegate, long interval, TimeUnit units, double refreshAheadFactor,
+            Executor refreshExecutor) {
+        if (refreshAheadFactor <= 0) {
+            throw new IllegalArgumentException("refreshAheadFactor must be greater than 0");
+        }
         this.delegate = delegate;
         this.interval = TimeUnit.NANOSECONDS.convert(interval, units);
-        this.busy = new AtomicBoolean(false);
-        this.cachedHealth = new CacheEntry(0L, null);
+        this.refreshAheadInterval = refreshAheadFactor < 1 ? (long) (this.interval * refreshAheadFactor) : this.interval;
+        this.refreshExecutor = refreshExecutor;
+        this.inFlight = new AtomicReference<>();
+        this.cachedHealth = new CacheEntry(0L, 0L, null);
     }
 
     @Override
@@ -62,27 +103,95 @@ public class CachingHealthIndicator implements HealthIndicator {
         CacheEntry cacheEntry = this.cachedHealth;
         long currentTime = System.nanoTime();
         if (currentTime > cacheEntry.getExpirationTime()) {
-            if (busy.compareAndSet(false, true)) {
-                try {
-                    delegate.check(h -> {
-                        this.cachedHealth = new CacheEntry(currentTime + interval,
-                                Health.from(h).withDetail(Health.CACHE_KEY, true).build());
-                        callback.inform(h);
-                    });
-                    return;
-                } finally {
-                    busy.set(false);
+            Load load = startLoad(currentTime);
+            if (load.claim()) {
+                load(load);
+                load.thenAccept(callback::inform);
+                return;
+            }
+            if (cacheEntry.getHealth() == null) {
+                // nothing cached yet, so wait for the load in flight even if it fails
+                load.thenAccept(callback::inform);
+                return;
+            }
+        } else if (currentTime > cacheEntry.getRefreshTime()) {
+            Load load = startLoad(currentTime);
+            if (load.claim()) {
+                callback.inform(cacheEntry.getHealth());
+                if (refreshExecutor != null) {
+                    refreshExecutor.execute(() -> load(load));
+                } else {
+                    load(load);
                 }
+                return;
             }
         }
         callback.inform(cacheEntry.getHealth());
     }
 
+    /**
+     * Start a new load, unless another is already in flight. A load that has been in flight for longer than the 
+     * cache interval is assumed lost and may be replaced.
+     * @return the load in flight, to be {@link Load#claim() claimed} by the caller calling the delegate
+     */
+    private Load startLoad(long currentTime) {
+        while (true) {
+            Load current = inFlight.get();
+            if (current != null && currentTime - current.startTime < interval) {
+                return current;
+            }
+            Load load = new Load(currentTime);
+            if (inFlight.compareAndSet(current, load)) {
+                return load;
+            }
+        }
+    }
+
+    private void load(Load load) {
+        try {
+            delegate.check(h -> {
+                this.cachedHealth = new CacheEntry(load.startTime + interval, load.startTime + refreshAheadInterval,
+                        Health.from(h).withDetail(Health.CACHE_KEY, true).withOutcome(Health.Outcome.CACHED).build());
+                inFlight.compareAndSet(load, null);
+                load.complete(h);
+            });
+        } catch (RuntimeException e) {
+            inFlight.compareAndSet(load, null);
+            load.complete(Health.unhealthy(e).withOutcome(Health.Outcome.ERROR).build());
+        }
+    }
+
     public static CachingHealthIndicator wrap(HealthIndicator delegate, long interval, TimeUnit units) {
-        return new CachingHealthIndicator(delegate, interval, units);
+        return wrap(delegate, interval, units, 1, null);
+    }
+
+    /**
+     * @param refreshAheadFactor fraction of the cache interval after which the delegate is refreshed in the 
+     *          background. Values of 1 or more disable refresh-ahead.
+     * @param refreshExecutor executor used for background refreshes. If null, the refresh runs on the calling 
+     *          thread after its callback has been informed.
+     */
+    public static CachingHealthIndicator wrap(HealthIndicator delegate, long interval, TimeUnit units,
+            double refreshAheadFactor, Executor refreshExecutor) {
+        return new CachingHealthIndicator(delegate, interval, units, refreshAheadFactor, refreshExecutor);
     }
 
     public String getName() {
         return delegate.getName();
     }
+
+    @Override
+    public long getTimeoutInMillis() {
+        return delegate.getTimeoutInMillis();
+    }
+
+    @Override
+    public Set<String> getTags() {
+        return delegate.getTags();
+    }
+
+    @Override
+    public Set<String> getDependencies() {
+        return delegate.getDependencies();
+    }
 }
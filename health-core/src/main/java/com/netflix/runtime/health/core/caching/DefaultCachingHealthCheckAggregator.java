@@ -16,18 +16,134 @@
 package com.netflix.runtime.health.core.caching;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import com.netflix.governator.event.ApplicationEventDispatcher;
 import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.PushHealthIndicator;
+import com.netflix.runtime.health.core.HealthStatusDamper;
 import com.netflix.runtime.health.core.SimpleHealthCheckAggregator;
+import com.netflix.spectator.api.Registry;
 
+/**
+ * {@link SimpleHealthCheckAggregator} which caches the response of each {@link HealthIndicator}, see 
+ * {@link CachingHealthIndicator}. {@link PushHealthIndicator}s are not wrapped as they are never invoked by a check.
+ */
 public class DefaultCachingHealthCheckAggregator extends SimpleHealthCheckAggregator {
 
     public DefaultCachingHealthCheckAggregator(List<HealthIndicator> indicators, long cacheInterval, TimeUnit cacheIntervalUnits,
             long aggregatorWaitInterval, TimeUnit aggregatorWaitUnits, ApplicationEventDispatcher eventDispatcher) {
-        super(indicators.stream().map(delegate -> CachingHealthIndicator.wrap(delegate, cacheInterval, cacheIntervalUnits))
-                .collect(Collectors.toList()), aggregatorWaitInterval, aggregatorWaitUnits, eventDispatcher);
+        this(builder(indicators, cacheInterval, cacheIntervalUnits).withMaxWaitTime(aggregatorWaitInterval, aggregatorWaitUnits)
+                .withEventDispatcher(eventDispatcher));
+    }
+
+    /**
+     * @deprecated use {@link #builder(List, long, TimeUnit)}
+     */
+    @Deprecated
+    public DefaultCachingHealthCheckAggregator(List<HealthIndicator> indicators, long cacheInterval, TimeUnit cacheIntervalUnits,
+            long aggregatorWaitInterval, TimeUnit aggregatorWaitUnits, ApplicationEventDispatcher eventDispatcher,
+            Registry registry, boolean coalesceChecks) {
+        this(indicators, cacheInterval, cacheIntervalUnits, aggregatorWaitInterval, aggregatorWaitUnits, eventDispatcher,
+                registry, coalesceChecks, null, null);
+    }
+
+    /**
+     * @deprecated use {@link #builder(List, long, TimeUnit)}
+     */
+    @Deprecated
+    public DefaultCachingHealthCheckAggregator(List<HealthIndicator> indicators, long cacheInterval, TimeUnit cacheIntervalUnits,
+            long aggregatorWaitInterval, TimeUnit aggregatorWaitUnits, ApplicationEventDispatcher eventDispatcher,
+            Registry registry, boolean coalesceChecks, ExecutorService healthCheckExecutor,
+            ScheduledExecutorService scheduledExecutor) {
+        this(indicators, cacheInterval, cacheIntervalUnits, aggregatorWaitInterval, aggregatorWaitUnits, eventDispatcher,
+                registry, coalesceChecks, healthCheckExecutor, scheduledExecutor, 1);
+    }
+
+    /**
+     * @deprecated use {@link #builder(List, long, TimeUnit)} and {@link Builder#withRefreshAheadFactor(double)}
+     */
+    @Deprecated
+    public DefaultCachingHealthCheckAggregator(List<HealthIndicator> indicators, long cacheInterval, TimeUnit cacheIntervalUnits,
+            long aggregatorWaitInterval, TimeUnit aggregatorWaitUnits, ApplicationEventDispatcher eventDispatcher,
+            Registry registry, boolean coalesceChecks, ExecutorService healthCheckExecutor,
+            ScheduledExecutorService scheduledExecutor, double refreshAheadFactor) {
+        this(indicators, cacheInterval, cacheIntervalUnits, aggregatorWaitInterval, aggregatorWaitUnits, eventDispatcher,
+                registry, coalesceChecks, healthCheckExecutor, scheduledExecutor, refreshAheadFactor, null);
+    }
+
+    /**
+     * @deprecated use {@link #builder(List, long, TimeUnit)}
+     */
+    @Deprecated
+    public DefaultCachingHealthCheckAggregator(List<HealthIndicator> indicators, long cacheInterval, TimeUnit cacheIntervalUnits,
+            long aggregatorWaitInterval, TimeUnit aggregatorWaitUnits, ApplicationEventDispatcher eventDispatcher,
+            Registry registry, boolean coalesceChecks, ExecutorService healthCheckExecutor,
+            ScheduledExecutorService scheduledExecutor, double refreshAheadFactor, HealthStatusDamper damper) {
+        this(indicators, cacheInterval, cacheIntervalUnits, aggregatorWaitInterval, aggregatorWaitUnits, eventDispatcher,
+                registry, coalesceChecks, healthCheckExecutor, scheduledExecutor, refreshAheadFactor, damper, false);
+    }
+
+    /**
+     * @deprecated use {@link #builder(List, long, TimeUnit)}
+     */
+    @Deprecated
+    public DefaultCachingHealthCheckAggregator(List<HealthIndicator> indicators, long cacheInterval, TimeUnit cacheIntervalUnits,
+            long aggregatorWaitInterval, TimeUnit aggregatorWaitUnits, ApplicationEventDispatcher eventDispatcher,
+            Registry registry, boolean coalesceChecks, ExecutorService healthCheckExecutor,
+            ScheduledExecutorService scheduledExecutor, double refreshAheadFactor, HealthStatusDamper damper,
+            boolean ownsHealthCheckExecutor) {
+        this(builder(indicators, cacheInterval, cacheIntervalUnits).withRefreshAheadFactor(refreshAheadFactor)
+                .withMaxWaitTime(aggregatorWaitInterval, aggregatorWaitUnits).withEventDispatcher(eventDispatcher)
+                .withRegistry(registry).withCoalescedChecks(coalesceChecks)
+                .withHealthCheckExecutor(healthCheckExecutor, ownsHealthCheckExecutor)
+                .withScheduledExecutor(scheduledExecutor).withDamper(damper));
+    }
+
+    protected DefaultCachingHealthCheckAggregator(Builder builder) {
+        super(builder.cachingIndicators(), builder);
+    }
+
+    public static Builder builder(List<HealthIndicator> indicators, long cacheInterval, TimeUnit cacheIntervalUnits) {
+        return new Builder(indicators, cacheInterval, cacheIntervalUnits);
+    }
+
+    public static class Builder extends AbstractBuilder<Builder> {
+        private final long cacheInterval;
+        private final TimeUnit cacheIntervalUnits;
+        private double refreshAheadFactor = 1;
+        
+        protected Builder(List<HealthIndicator> indicators, long cacheInterval, TimeUnit cacheIntervalUnits) {
+            super(indicators);
+            this.cacheInterval = cacheInterval;
+            this.cacheIntervalUnits = cacheIntervalUnits;
+        }
+        
+        /**
+         * Fraction of the cache interval after which indicators are refreshed in the background while the cached 
+         * value is returned, see {@link CachingHealthIndicator}. Defaults to 1, refreshing only once expired.
+         */
+        public Builder withRefreshAheadFactor(double refreshAheadFactor) {
+            this.refreshAheadFactor = refreshAheadFactor;
+            return this;
+        }
+        
+        private List<HealthIndicator> cachingIndicators() {
+            return indicators.stream().map(delegate -> delegate instanceof PushHealthIndicator ? delegate 
+                    : CachingHealthIndicator.wrap(delegate, cacheInterval, cacheIntervalUnits, refreshAheadFactor, null))
+                    .collect(Collectors.toList());
+        }
+        
+        @Override
+        protected Builder self() {
+            return this;
+        }
+        
+        public DefaultCachingHealthCheckAggregator build() {
+            return new DefaultCachingHealthCheckAggregator(this);
+        }
     }
 }
@@ -0,0 +1,226 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.netflix.governator.event.ApplicationEvent;
+import com.netflix.governator.event.ApplicationEventDispatcher;
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+import com.netflix.runtime.health.api.IndicatorMatchers;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HealthCheckGroupTest {
+
+    @Mock ApplicationEventDispatcher dispatcher;
+    SimpleHealthCheckAggregator aggregator;
+    
+    static HealthIndicator indicator(String name, boolean healthy, String... tags) {
+        return new HealthIndicator() {
+            @Override
+            public void check(HealthIndicatorCallback healthCallback) {
+                healthCallback.inform(healthy ? Health.healthy().build() : Health.unhealthy().build());
+            }
+            
+            @Override
+            public String getName() {
+                return name;
+            }
+            
+            @Override
+            public Set<String> getTags() {
+                return new HashSet<>(Arrays.asList(tags));
+            }
+        };
+    }
+    
+    @After
+    public void close() throws Exception {
+        aggregator.close();
+    }
+    
+    @Test(timeout=1000)
+    public void testRules() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(
+                indicator("process", true, HealthIndicator.CRITICAL_TAG), indicator("database", false)), 
+                1, TimeUnit.SECONDS);
+        
+        assertFalse(aggregator.group("all", IndicatorMatchers.build(), HealthCheckGroup.Rule.ALL_HEALTHY)
+                .check().get().isHealthy());
+        assertTrue(aggregator.group("critical", IndicatorMatchers.build(), HealthCheckGroup.Rule.CRITICAL_HEALTHY)
+                .check().get().isHealthy());
+        assertTrue(aggregator.group("any", IndicatorMatchers.build(), HealthCheckGroup.Rule.ANY_HEALTHY)
+                .check().get().isHealthy());
+        assertFalse(aggregator.group("any", IndicatorMatchers.excludes("process").build(), HealthCheckGroup.Rule.ANY_HEALTHY)
+                .check().get().isHealthy());
+    }
+    
+    @Test(timeout=1000)
+    public void testUnmatchedIndicatorsSuppressed() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(
+                indicator("process", true, "liveness"), indicator("database", false, "readiness")), 1, TimeUnit.SECONDS);
+        HealthCheckGroup liveness = aggregator.group("liveness", IndicatorMatchers.includes("tag:liveness").build(), 
+                HealthCheckGroup.Rule.ALL_HEALTHY);
+        
+        HealthCheckStatus status = liveness.check().get();
+        assertTrue(status.isHealthy());
+        assertEquals(1, status.getHealthResults().size());
+        assertEquals(1, status.getSuppressedHealthResults().size());
+        
+        // the version only changes with the results
+        assertSame(status, liveness.check().get());
+        assertTrue(liveness.check(IndicatorMatchers.excludes("process").build()).get().getHealthResults().isEmpty());
+    }
+    
+    @Test(timeout=1000)
+    public void testCriticalIndicatorOutsideGroupDoesNotDecideIt() throws Exception {
+        HealthIndicator slowDatabase = new HealthIndicator() {
+            @Override
+            public void check(HealthIndicatorCallback healthCallback) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                }
+                healthCallback.inform(Health.healthy().build());
+            }
+            
+            @Override
+            public String getName() {
+                return "db";
+            }
+        };
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(
+                indicator("core", false, HealthIndicator.CRITICAL_TAG), slowDatabase))
+                .withMaxWaitTime(1, TimeUnit.SECONDS).withCoalescedChecks(true).build();
+        HealthCheckGroup readiness = aggregator.group("readiness", IndicatorMatchers.includes("db").build(), 
+                HealthCheckGroup.Rule.ALL_HEALTHY);
+        
+        HealthCheckStatus overall = aggregator.check().get();
+        assertFalse(overall.isHealthy());
+        assertEquals(Health.Outcome.SKIPPED, overall.getHealthResults().get(1).getOutcome());
+        
+        HealthCheckStatus status = readiness.check().get();
+        assertTrue(status.isHealthy());
+        assertEquals(Health.Outcome.HEALTHY, status.getHealthResults().get(0).getOutcome());
+    }
+    
+    @Test(timeout=1000)
+    public void testGroupsShareEvaluation() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger invocations = new AtomicInteger();
+        HealthIndicator blocking = callback -> {
+            invocations.incrementAndGet();
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+            }
+            callback.inform(Health.healthy().build());
+        };
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(blocking)).withMaxWaitTime(1, TimeUnit.SECONDS)
+                .withCoalescedChecks(true).build();
+        CompletableFuture<HealthCheckStatus> liveness = aggregator
+                .group("liveness", IndicatorMatchers.build(), HealthCheckGroup.Rule.CRITICAL_HEALTHY).check();
+        CompletableFuture<HealthCheckStatus> readiness = aggregator
+                .group("readiness", IndicatorMatchers.build(), HealthCheckGroup.Rule.ALL_HEALTHY).check();
+        latch.countDown();
+        assertTrue(liveness.get().isHealthy());
+        assertTrue(readiness.get().isHealthy());
+        assertEquals(1, invocations.get());
+    }
+    
+    @Test(timeout=1000)
+    public void testGroupsShareEvaluationWithoutCoalescing() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger invocations = new AtomicInteger();
+        HealthIndicator blocking = callback -> {
+            invocations.incrementAndGet();
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+            }
+            callback.inform(Health.healthy().build());
+        };
+        HealthIndicator counting = callback -> {
+            invocations.incrementAndGet();
+            callback.inform(Health.healthy().build());
+        };
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(blocking, counting), 1, TimeUnit.SECONDS);
+        HealthCheckGroup liveness = aggregator.group("liveness", IndicatorMatchers.build(), HealthCheckGroup.Rule.CRITICAL_HEALTHY);
+        HealthCheckGroup readiness = aggregator.group("readiness", IndicatorMatchers.build(), HealthCheckGroup.Rule.ALL_HEALTHY);
+        HealthCheckGroup startup = aggregator.group("startup", IndicatorMatchers.build(), HealthCheckGroup.Rule.ANY_HEALTHY);
+        CompletableFuture<HealthCheckStatus> livenessStatus = liveness.check();
+        CompletableFuture<HealthCheckStatus> readinessStatus = readiness.check();
+        CompletableFuture<HealthCheckStatus> startupStatus = startup.check();
+        latch.countDown();
+        assertTrue(livenessStatus.get().isHealthy());
+        assertTrue(readinessStatus.get().isHealthy());
+        assertTrue(startupStatus.get().isHealthy());
+        assertEquals(2, invocations.get());
+    }
+    
+    @Test(timeout=1000)
+    public void testGroupsServedFromLastRefresh() throws Exception {
+        AtomicInteger invocations = new AtomicInteger();
+        HealthIndicator counting = callback -> {
+            invocations.incrementAndGet();
+            callback.inform(Health.healthy().build());
+        };
+        aggregator = new RefreshingHealthCheckAggregator(Arrays.asList(counting), 1, 1, TimeUnit.HOURS, 
+                1, TimeUnit.SECONDS);
+        while (invocations.get() == 0) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(20);
+        HealthCheckGroup liveness = aggregator.group("liveness", IndicatorMatchers.build(), HealthCheckGroup.Rule.ALL_HEALTHY);
+        HealthCheckGroup readiness = aggregator.group("readiness", IndicatorMatchers.build(), HealthCheckGroup.Rule.ALL_HEALTHY);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(liveness.check().get().isHealthy());
+            assertTrue(readiness.check().get().isHealthy());
+        }
+        assertEquals(1, invocations.get());
+    }
+    
+    @Test(timeout=1000)
+    public void testGroupsDoNotPublishEvents() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(Collections.singletonList(indicator("database", false)), 
+                1, TimeUnit.SECONDS, dispatcher);
+        aggregator.group("liveness", IndicatorMatchers.excludes("database").build(), HealthCheckGroup.Rule.ALL_HEALTHY)
+                .check().get();
+        Mockito.verify(dispatcher, Mockito.never()).publishEvent(Mockito.any(ApplicationEvent.class));
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.netflix.governator.event.ApplicationEventDispatcher;
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HealthStatusDamperTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Mock ApplicationEventDispatcher dispatcher;
+    AtomicBoolean flapping;
+    AtomicBoolean stable;
+    SimpleHealthCheckAggregator aggregator;
+
+    @Before
+    public void setup() {
+        flapping = new AtomicBoolean(true);
+        stable = new AtomicBoolean(true);
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(indicator(flapping), indicator(stable)), 1, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void teardown() throws Exception {
+        aggregator.close();
+    }
+
+    private static HealthIndicator indicator(AtomicBoolean healthy) {
+        return callback -> callback.inform(healthy.get() ? Health.healthy().build() : Health.unhealthy().build());
+    }
+
+    private HealthCheckStatus check(boolean flappingHealthy) throws Exception {
+        flapping.set(flappingHealthy);
+        return aggregator.check().get();
+    }
+
+    @Test(timeout = 1000)
+    public void testTransitionRequiresConsecutiveResults() throws Exception {
+        HealthStatusDamper damper = HealthStatusDamper.builder().withConsecutiveResults(3).build();
+        assertNull(damper.offer(check(true), 0));
+        assertNull(damper.offer(check(true), 0));
+        assertNotNull(damper.offer(check(true), 0));
+        assertTrue(damper.isHealthy());
+
+        assertNull(damper.offer(check(false), 0));
+        assertNull(damper.offer(check(true), 0));
+        assertNull(damper.offer(check(false), 0));
+        assertNull(damper.offer(check(false), 0));
+        assertTrue(damper.isHealthy());
+        HealthCheckStatus declared = damper.offer(check(false), 0);
+        assertFalse(declared.isHealthy());
+        assertFalse(damper.isHealthy());
+    }
+
+    @Test(timeout = 1000)
+    public void testTransitionRequiresMinDwell() throws Exception {
+        HealthStatusDamper damper = HealthStatusDamper.builder().withMinDwell(10, TimeUnit.SECONDS).build();
+        assertNotNull(damper.offer(check(true), 0));
+        assertNull(damper.offer(check(false), 5 * SECOND));
+        assertTrue(damper.isHealthy());
+        assertNotNull(damper.offer(check(false), 10 * SECOND));
+        assertFalse(damper.isHealthy());
+        assertNull(damper.offer(check(true), 15 * SECOND));
+        assertNotNull(damper.offer(check(true), 20 * SECOND));
+    }
+
+    @Test(timeout = 1000)
+    public void testFlappingIndicatorSuppressedUntilPenaltyDecays() throws Exception {
+        HealthStatusDamper damper = HealthStatusDamper.builder()
+                .withFlapDamping(60, 240, TimeUnit.SECONDS)
+                .build();
+        assertNotNull(damper.offer(check(true), 0));
+        assertNotNull(damper.offer(check(false), 1 * SECOND));
+        assertNotNull(damper.offer(check(true), 2 * SECOND));
+
+        // third flip exceeds the suppress threshold, healthy results are now damped
+        HealthCheckStatus declared = damper.offer(check(false), 3 * SECOND);
+        assertFalse(declared.isHealthy());
+        assertNull(damper.offer(check(true), 4 * SECOND));
+        assertNull(damper.offer(check(true), 60 * SECOND));
+        assertFalse(damper.isHealthy());
+
+        // ~4000 decays below the reuse threshold of 750 after more than two half-lives
+        assertNull(damper.offer(check(true), 130 * SECOND));
+        declared = damper.offer(check(true), 150 * SECOND);
+        assertTrue(declared.isHealthy());
+    }
+
+    @Test(timeout = 1000)
+    public void testDampedIndicatorMarkedFlappingInDeclaredStatus() throws Exception {
+        HealthStatusDamper damper = HealthStatusDamper.builder()
+                .withConsecutiveResults(2)
+                .withFlapDamping(60, 240, TimeUnit.SECONDS)
+                .withFlapThresholds(1500, 750)
+                .build();
+        assertNull(damper.offer(check(true), 0));
+        assertNotNull(damper.offer(check(true), 0));
+        assertNull(damper.offer(check(false), 0));
+
+        // healthy again, but damped by the second flip
+        HealthCheckStatus raw = check(true);
+        assertTrue(raw.isHealthy());
+        HealthCheckStatus declared = damper.offer(raw, 0);
+        assertFalse(declared.isHealthy());
+        assertEquals(2, declared.getHealthResults().size());
+        assertEquals(true, declared.getHealthResults().get(0).getDetails().get(HealthStatusDamper.FLAPPING_KEY));
+        assertNull(declared.getHealthResults().get(1).getDetails().get(HealthStatusDamper.FLAPPING_KEY));
+    }
+
+    @Test(timeout = 1000)
+    public void testCoalescedChecksCountOnce() throws Exception {
+        aggregator.close();
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger invocations = new AtomicInteger();
+        HealthIndicator blocking = callback -> {
+            invocations.incrementAndGet();
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+            }
+            callback.inform(Health.healthy().build());
+        };
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(blocking)).withMaxWaitTime(1, TimeUnit.SECONDS)
+                .withEventDispatcher(dispatcher).withCoalescedChecks(true)
+                .withDamper(HealthStatusDamper.builder().withConsecutiveResults(3).build()).build();
+        List<CompletableFuture<HealthCheckStatus>> checks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            checks.add(aggregator.check());
+        }
+        latch.countDown();
+        for (CompletableFuture<HealthCheckStatus> check : checks) {
+            assertTrue(check.get().isHealthy());
+        }
+        Thread.sleep(10);
+        assertEquals(1, invocations.get());
+        Mockito.verify(dispatcher, Mockito.never()).publishEvent(Mockito.any(HealthCheckStatusChangedEvent.class));
+        
+        aggregator.check().get();
+        aggregator.check().get();
+        Thread.sleep(10);
+        Mockito.verify(dispatcher, Mockito.times(1)).publishEvent(Mockito.any(HealthCheckStatusChangedEvent.class));
+    }
+
+    @Test(timeout = 1000)
+    public void testAggregatorPublishesDampedEvents() throws Exception {
+        aggregator.close();
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(indicator(flapping), indicator(stable)))
+                .withMaxWaitTime(1, TimeUnit.SECONDS).withEventDispatcher(dispatcher)
+                .withDamper(HealthStatusDamper.builder().withConsecutiveResults(2).build()).build();
+        check(true);
+        check(false);
+        check(true);
+        check(true);
+        check(false);
+        check(false);
+        Thread.sleep(10);
+        ArgumentCaptor<HealthCheckStatusChangedEvent> events = ArgumentCaptor.forClass(HealthCheckStatusChangedEvent.class);
+        Mockito.verify(dispatcher, Mockito.times(2)).publishEvent(events.capture());
+        List<HealthCheckStatusChangedEvent> published = events.getAllValues();
+        assertTrue(published.get(0).getHealth().isHealthy());
+        assertFalse(published.get(1).getHealth().isHealthy());
+        assertEquals(2, published.get(1).getHealth().getHealthResults().size());
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+import com.netflix.runtime.health.api.IndicatorMatchers;
+
+public class RefreshingHealthCheckAggregatorTest {
+
+    RefreshingHealthCheckAggregator aggregator;
+    AtomicInteger invocations;
+    HealthIndicator counting;
+
+    static HealthIndicator unhealthy = new HealthIndicator() {
+        @Override
+        public void check(HealthIndicatorCallback healthCallback) {
+            healthCallback.inform(Health.unhealthy().build());
+        }
+    };
+
+    @Before
+    public void init() {
+        invocations = new AtomicInteger();
+        counting = new HealthIndicator() {
+            @Override
+            public void check(HealthIndicatorCallback healthCallback) {
+                invocations.incrementAndGet();
+                healthCallback.inform(Health.healthy().build());
+            }
+        };
+    }
+
+    @After
+    public void close() throws Exception {
+        if (aggregator != null) {
+            aggregator.close();
+        }
+    }
+
+    @Test(timeout = 1000)
+    public void testChecksServedFromSnapshot() throws Exception {
+        aggregator = new RefreshingHealthCheckAggregator(Arrays.asList(counting), 10, 10, TimeUnit.SECONDS, 1, TimeUnit.SECONDS);
+        awaitSnapshot();
+        int refreshed = invocations.get();
+        for (int x = 0; x < 10; x++) {
+            HealthCheckStatus status = aggregator.check().get();
+            assertTrue(status.isHealthy());
+            assertEquals(1, status.getHealthResults().size());
+        }
+        assertEquals(refreshed, invocations.get());
+        assertSame(aggregator.check(), aggregator.check());
+    }
+
+    @Test(timeout = 1000)
+    public void testRefreshesOnSchedule() throws Exception {
+        aggregator = new RefreshingHealthCheckAggregator(Arrays.asList(counting), 20, 10000, TimeUnit.MILLISECONDS, 1, TimeUnit.SECONDS);
+        awaitSnapshot();
+        Thread.sleep(100);
+        assertTrue(invocations.get() > 2);
+    }
+
+    @Test(timeout = 1000)
+    public void testMatcherReappliedToSnapshot() throws Exception {
+        aggregator = new RefreshingHealthCheckAggregator(Arrays.asList(counting, unhealthy), 10, 10, TimeUnit.SECONDS, 1, TimeUnit.SECONDS);
+        awaitSnapshot();
+        assertFalse(aggregator.check().get().isHealthy());
+
+        HealthCheckStatus status = aggregator.check(IndicatorMatchers.excludes(unhealthy.getName()).build()).get();
+        assertTrue(status.isHealthy());
+        assertEquals(1, status.getHealthResults().size());
+        assertEquals(1, status.getSuppressedHealthResults().size());
+        assertEquals(unhealthy.getName(), status.getSuppressedHealthResults().get(0).getDetails().get("className"));
+    }
+
+    @Test(timeout = 1000)
+    public void testStaleSnapshotFallsBackToLiveCheck() throws Exception {
+        aggregator = new RefreshingHealthCheckAggregator(Arrays.asList(counting), 10000, 20, TimeUnit.MILLISECONDS, 1000, TimeUnit.MILLISECONDS);
+        awaitSnapshot();
+        Thread.sleep(50);
+        int refreshed = invocations.get();
+        assertTrue(aggregator.check().get().isHealthy());
+        assertEquals(refreshed + 1, invocations.get());
+    }
+
+    private void awaitSnapshot() throws InterruptedException {
+        while (invocations.get() == 0) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(10);
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+import com.netflix.spectator.api.DefaultRegistry;
+
+public class SimpleHealthCheckAggregatorBulkheadTest {
+
+    SimpleHealthCheckAggregator aggregator;
+    ExecutorService executor;
+    CountDownLatch release;
+    AtomicInteger invocations;
+    List<String> threads;
+    HealthIndicator hangsOnce;
+
+    @Before
+    public void init() {
+        executor = Executors.newFixedThreadPool(2);
+        release = new CountDownLatch(1);
+        invocations = new AtomicInteger();
+        threads = new CopyOnWriteArrayList<>();
+        hangsOnce = new HealthIndicator() {
+            @Override
+            public void check(HealthIndicatorCallback healthCallback) {
+                threads.add(Thread.currentThread().getName());
+                if (invocations.incrementAndGet() == 1) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                healthCallback.inform(Health.healthy().build());
+            }
+        };
+    }
+
+    @After
+    public void teardown() throws Exception {
+        release.countDown();
+        aggregator.close();
+        executor.shutdownNow();
+    }
+
+    @Test(timeout = 1000)
+    public void testNoSecondInvocationWhileStuck() throws Exception {
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(hangsOnce))
+                .withMaxWaitTime(20, TimeUnit.MILLISECONDS).withHealthCheckExecutor(executor).build();
+        assertFalse(aggregator.check().get().isHealthy());
+        HealthCheckStatus status = aggregator.check().get();
+        assertFalse(status.isHealthy());
+        assertEquals(Health.Outcome.TIMEOUT, status.getHealthResults().get(0).getOutcome());
+        assertFalse(aggregator.check().get().isHealthy());
+        assertEquals(1, invocations.get());
+    }
+
+    @Test(timeout = 5000)
+    public void testHungIndicatorHoldsOneThread() throws Exception {
+        HealthIndicator hangs = healthCallback -> {
+            invocations.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(hangs))
+                .withMaxWaitTime(20, TimeUnit.MILLISECONDS).withHealthCheckExecutor(executor).build();
+        for (int i = 0; i < 50; i++) {
+            assertFalse(aggregator.check().get().isHealthy());
+        }
+        assertEquals(1, invocations.get());
+        assertEquals(1, aggregator.getStuckInvocationCount());
+    }
+
+    @Test(timeout = 5000)
+    public void testJoinedEvaluationsReleasedOnTimeout() throws Exception {
+        HealthIndicator hangs = healthCallback -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(hangs))
+                .withMaxWaitTime(200, TimeUnit.MILLISECONDS).withHealthCheckExecutor(executor).build();
+        List<CompletableFuture<HealthCheckStatus>> checks = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            checks.add(aggregator.check());
+        }
+        assertEquals(499, aggregator.getJoinedEvaluationCount());
+        for (CompletableFuture<HealthCheckStatus> check : checks) {
+            assertFalse(check.get().isHealthy());
+        }
+        assertEquals(0, aggregator.getJoinedEvaluationCount());
+    }
+
+    @Test(timeout = 1000)
+    public void testCheckJoinsOutstandingInvocation() throws Exception {
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(hangsOnce))
+                .withMaxWaitTime(500, TimeUnit.MILLISECONDS).withHealthCheckExecutor(executor).build();
+        aggregator.check();
+        Thread.sleep(10);
+        HealthCheckStatus[] joined = new HealthCheckStatus[1];
+        aggregator.check().thenAccept(status -> joined[0] = status);
+        release.countDown();
+        Thread.sleep(20);
+        assertTrue(joined[0].isHealthy());
+        assertEquals(1, invocations.get());
+    }
+
+    @Test(timeout = 1000)
+    public void testStuckInvocationsCounted() throws Exception {
+        DefaultRegistry registry = new DefaultRegistry();
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(hangsOnce))
+                .withMaxWaitTime(20, TimeUnit.MILLISECONDS).withRegistry(registry).withHealthCheckExecutor(executor)
+                .build();
+        aggregator.check().get();
+        assertEquals(1, aggregator.getStuckInvocationCount());
+        assertEquals(1, registry.get(registry.createId("runtime.health.executor.stuck")).measure().iterator().next().value(), 0);
+        release.countDown();
+        Thread.sleep(20);
+        assertEquals(0, aggregator.getStuckInvocationCount());
+    }
+
+    @Test(timeout = 1000)
+    public void testStuckIndicatorQuarantined() throws Exception {
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(hangsOnce))
+                .withMaxWaitTime(20, TimeUnit.MILLISECONDS).withHealthCheckExecutor(executor).build();
+        aggregator.check().get();
+        release.countDown();
+        Thread.sleep(20);
+        assertTrue(aggregator.check().get().isHealthy());
+        
+        // returned in time, so no longer quarantined once out of check()
+        Thread.sleep(20);
+        assertTrue(aggregator.check().get().isHealthy());
+        assertEquals(3, threads.size());
+        assertThat(threads.get(0)).startsWith("pool-");
+        assertThat(threads.get(1)).startsWith("healthIndicatorDedicated-");
+        assertThat(threads.get(2)).startsWith("pool-");
+    }
+
+    @Test(timeout = 1000)
+    public void testResponsiveTimeoutIsNotQuarantined() throws Exception {
+        HealthIndicator nonResponsive = healthCallback -> threads.add(Thread.currentThread().getName());
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(nonResponsive))
+                .withMaxWaitTime(20, TimeUnit.MILLISECONDS).withHealthCheckExecutor(executor).build();
+        aggregator.check().get();
+        aggregator.check().get();
+        assertEquals(0, aggregator.getStuckInvocationCount());
+        assertThat(threads).hasSize(2).allMatch(name -> name.startsWith("pool-"));
+    }
+}
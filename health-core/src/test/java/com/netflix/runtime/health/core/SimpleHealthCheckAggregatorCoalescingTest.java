@@ -0,0 +1,129 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+import com.netflix.runtime.health.api.IndicatorMatchers;
+
+public class SimpleHealthCheckAggregatorCoalescingTest {
+
+    SimpleHealthCheckAggregator aggregator;
+    CountDownLatch latch;
+    AtomicInteger invocations;
+    HealthIndicator blocking;
+
+    static HealthIndicator unhealthy = new HealthIndicator() {
+        @Override
+        public void check(HealthIndicatorCallback healthCallback) {
+            healthCallback.inform(Health.unhealthy().build());
+        }
+    };
+
+    @Before
+    public void init() {
+        latch = new CountDownLatch(1);
+        invocations = new AtomicInteger();
+        blocking = new HealthIndicator() {
+            @Override
+            public void check(HealthIndicatorCallback healthCallback) {
+                invocations.incrementAndGet();
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                healthCallback.inform(Health.healthy().build());
+            }
+        };
+    }
+
+    @Test(timeout = 1000)
+    public void testConcurrentChecksShareInvocation() throws Exception {
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(blocking)).withMaxWaitTime(1, TimeUnit.SECONDS)
+                .withCoalescedChecks(true).build();
+        List<CompletableFuture<HealthCheckStatus>> futures = new ArrayList<>();
+        for (int x = 0; x < 5; x++) {
+            futures.add(aggregator.check());
+        }
+        latch.countDown();
+        for (CompletableFuture<HealthCheckStatus> future : futures) {
+            assertTrue(future.get().isHealthy());
+            assertEquals(1, future.get().getHealthResults().size());
+        }
+        assertEquals(1, invocations.get());
+    }
+
+    @Test(timeout = 1000)
+    public void testMatchersAppliedToSharedResults() throws Exception {
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(blocking, unhealthy))
+                .withMaxWaitTime(1, TimeUnit.SECONDS).withCoalescedChecks(true).build();
+        CompletableFuture<HealthCheckStatus> all = aggregator.check();
+        CompletableFuture<HealthCheckStatus> filtered = aggregator.check(IndicatorMatchers.excludes(unhealthy.getName()).build());
+        latch.countDown();
+
+        assertFalse(all.get().isHealthy());
+        assertEquals(2, all.get().getHealthResults().size());
+        assertEquals(0, all.get().getSuppressedHealthResults().size());
+
+        assertTrue(filtered.get().isHealthy());
+        assertEquals(1, filtered.get().getHealthResults().size());
+        assertEquals(1, filtered.get().getSuppressedHealthResults().size());
+        assertEquals(1, invocations.get());
+    }
+
+    @Test(timeout = 1000)
+    public void testNewInvocationAfterCompletion() throws Exception {
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(blocking)).withMaxWaitTime(1, TimeUnit.SECONDS)
+                .withCoalescedChecks(true).build();
+        latch.countDown();
+        aggregator.check().get();
+        aggregator.check().get();
+        assertEquals(2, invocations.get());
+    }
+
+    @Test(timeout = 1000)
+    public void testOutstandingInvocationJoinedWithoutCoalescing() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(blocking), 1, TimeUnit.SECONDS);
+        List<CompletableFuture<HealthCheckStatus>> futures = new ArrayList<>();
+        for (int x = 0; x < 3; x++) {
+            futures.add(aggregator.check());
+        }
+        latch.countDown();
+        for (CompletableFuture<HealthCheckStatus> future : futures) {
+            assertTrue(future.get().isHealthy());
+        }
+        // each check is evaluated separately, but an indicator is never invoked while its previous invocation is outstanding
+        assertEquals(1, invocations.get());
+    }
+}
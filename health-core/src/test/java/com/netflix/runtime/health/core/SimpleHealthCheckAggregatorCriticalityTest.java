@@ -0,0 +1,216 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+
+public class SimpleHealthCheckAggregatorCriticalityTest {
+
+    SimpleHealthCheckAggregator aggregator;
+    
+    static HealthIndicator nonResponsive = new HealthIndicator() {
+        @Override
+        public void check(HealthIndicatorCallback healthCallback) {
+        }
+    };
+    
+    static HealthIndicator healthy = new HealthIndicator() {
+        @Override
+        public void check(HealthIndicatorCallback healthCallback) {
+            healthCallback.inform(Health.healthy().build());
+        }
+    };
+    
+    static HealthIndicator unhealthy = new HealthIndicator() {
+        @Override
+        public void check(HealthIndicatorCallback healthCallback) {
+            healthCallback.inform(Health.unhealthy().build());
+        }
+    };
+    
+    static HealthIndicator tagged(String tag, HealthIndicator delegate) {
+        return new HealthIndicator() {
+            @Override
+            public void check(HealthIndicatorCallback healthCallback) {
+                delegate.check(healthCallback);
+            }
+            
+            @Override
+            public Set<String> getTags() {
+                return Collections.singleton(tag);
+            }
+        };
+    }
+    
+    @After
+    public void close() throws Exception {
+        aggregator.close();
+    }
+    
+    @Test(timeout=1000)
+    public void testCriticalUnhealthyDecidesWithoutWaiting() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(
+                Arrays.asList(tagged(HealthIndicator.CRITICAL_TAG, unhealthy), nonResponsive), 5, TimeUnit.SECONDS);
+        HealthCheckStatus aggregatedHealth = aggregator.check().get();
+        assertFalse(aggregatedHealth.isHealthy());
+        assertEquals(2, aggregatedHealth.getHealthResults().size());
+        Health skipped = aggregatedHealth.getHealthResults().get(1);
+        assertEquals(Health.Outcome.SKIPPED, skipped.getOutcome());
+        assertTrue(skipped.getDetails().containsKey(Health.SKIPPED_KEY));
+        // not known to be unhealthy
+        assertTrue(skipped.isHealthy());
+    }
+    
+    @Test(timeout=1000)
+    public void testSuppressedCriticalUnhealthyDoesNotDecide() throws Exception {
+        HealthIndicator critical = tagged(HealthIndicator.CRITICAL_TAG, unhealthy);
+        HealthIndicator slow = callback -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+            }
+            callback.inform(Health.healthy().build());
+        };
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(critical, slow), 5, TimeUnit.SECONDS);
+        HealthCheckStatus aggregatedHealth = aggregator.check(indicator -> indicator != critical).get();
+        assertTrue(aggregatedHealth.isHealthy());
+        assertEquals(Health.Outcome.HEALTHY, aggregatedHealth.getHealthResults().get(0).getOutcome());
+        assertEquals(1, aggregatedHealth.getSuppressedHealthResults().size());
+    }
+    
+    @Test(timeout=1000)
+    public void testCriticalHealthyWaitsForOthers() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(
+                Arrays.asList(tagged(HealthIndicator.CRITICAL_TAG, healthy), unhealthy, nonResponsive), 50, TimeUnit.MILLISECONDS);
+        HealthCheckStatus aggregatedHealth = aggregator.check().get();
+        assertFalse(aggregatedHealth.isHealthy());
+        assertEquals(Health.Outcome.TIMEOUT, aggregatedHealth.getHealthResults().get(2).getOutcome());
+    }
+    
+    @Test(timeout=1000)
+    public void testUntaggedUnhealthyWaitsForOthers() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(unhealthy, nonResponsive), 50, TimeUnit.MILLISECONDS);
+        HealthCheckStatus aggregatedHealth = aggregator.check().get();
+        assertFalse(aggregatedHealth.isHealthy());
+        assertEquals(Health.Outcome.TIMEOUT, aggregatedHealth.getHealthResults().get(1).getOutcome());
+    }
+    
+    @Test(timeout=1000)
+    public void testNonCriticalDoesNotAffectHealth() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(
+                Arrays.asList(healthy, tagged(HealthIndicator.NON_CRITICAL_TAG, unhealthy)), 1, TimeUnit.SECONDS);
+        HealthCheckStatus aggregatedHealth = aggregator.check().get();
+        assertTrue(aggregatedHealth.isHealthy());
+        assertEquals(2, aggregatedHealth.getHealthResults().size());
+        assertFalse(aggregatedHealth.getHealthResults().get(1).isHealthy());
+    }
+    
+    @Test(timeout=2000)
+    public void testHungBackgroundRefreshDoesNotStarveOthers() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        HealthIndicator hangsAfterFirst = tagged(HealthIndicator.NON_CRITICAL_TAG, callback -> {
+            if (count.incrementAndGet() > 1) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                }
+            }
+            callback.inform(Health.healthy().build());
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(hangsAfterFirst, healthy))
+                    .withMaxWaitTime(50, TimeUnit.MILLISECONDS).withHealthCheckExecutor(executor).build();
+            assertTrue(aggregator.check().get().isHealthy());
+            for (int i = 0; i < 5; i++) {
+                HealthCheckStatus status = aggregator.check().get();
+                assertTrue(status.isHealthy());
+                assertEquals(Health.Outcome.HEALTHY, status.getHealthResults().get(1).getOutcome());
+            }
+            while (count.get() < 2) {
+                Thread.sleep(10);
+            }
+            assertEquals(Health.Outcome.HEALTHY, aggregator.check().get().getHealthResults().get(1).getOutcome());
+            assertEquals(2, count.get());
+            
+            // the refresh is counted as stuck once past the indicator's timeout
+            Thread.sleep(100);
+            assertEquals(1, aggregator.getStuckInvocationCount());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test(timeout=1000)
+    public void testNonCriticalServedFromLatestResult() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        HealthIndicator slow = tagged(HealthIndicator.NON_CRITICAL_TAG, callback -> {
+            int current = count.incrementAndGet();
+            if (current > 1) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                }
+            }
+            callback.inform(Health.healthy().withDetail("count", current).build());
+        });
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(healthy, slow), 5, TimeUnit.SECONDS);
+        
+        // nothing to report yet, so the first check waits for the indicator
+        Health first = aggregator.check().get().getHealthResults().get(1);
+        assertEquals(1, first.getDetails().get("count"));
+        assertEquals(Health.Outcome.HEALTHY, first.getOutcome());
+        
+        // later checks don't wait for the background refresh
+        Health second = aggregator.check().get().getHealthResults().get(1);
+        assertEquals(1, second.getDetails().get("count"));
+        assertEquals(Health.Outcome.CACHED, second.getOutcome());
+        aggregator.check().get();
+        while (count.get() < 2) {
+            Thread.sleep(10);
+        }
+        aggregator.check().get();
+        assertEquals(2, count.get());
+        
+        // once refreshed, the new result is reported
+        release.countDown();
+        while (aggregator.check().get().getHealthResults().get(1).getDetails().get("count").equals(1)) {
+            Thread.sleep(10);
+        }
+    }
+}
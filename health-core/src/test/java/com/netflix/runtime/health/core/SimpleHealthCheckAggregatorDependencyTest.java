@@ -0,0 +1,152 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+
+public class SimpleHealthCheckAggregatorDependencyTest {
+
+    SimpleHealthCheckAggregator aggregator;
+    
+    static HealthIndicator named(String name, HealthIndicator delegate, String... dependencies) {
+        return new HealthIndicator() {
+            @Override
+            public void check(HealthIndicatorCallback healthCallback) {
+                delegate.check(healthCallback);
+            }
+            
+            @Override
+            public String getName() {
+                return name;
+            }
+            
+            @Override
+            public Set<String> getDependencies() {
+                return new HashSet<>(Arrays.asList(dependencies));
+            }
+        };
+    }
+    
+    @After
+    public void close() throws Exception {
+        if (aggregator != null) {
+            aggregator.close();
+        }
+    }
+    
+    @Test(timeout=1000)
+    public void testDependentSkippedWhenUpstreamUnhealthy() throws Exception {
+        AtomicInteger invoked = new AtomicInteger();
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(
+                named("cache", callback -> {
+                    invoked.incrementAndGet();
+                    callback.inform(Health.healthy().build());
+                }, "network"),
+                named("network", callback -> callback.inform(Health.unhealthy().build()))), 1, TimeUnit.SECONDS);
+        HealthCheckStatus aggregatedHealth = aggregator.check().get();
+        assertFalse(aggregatedHealth.isHealthy());
+        Health cache = aggregatedHealth.getHealthResults().get(0);
+        assertEquals(Health.Outcome.SKIPPED, cache.getOutcome());
+        assertEquals("upstream unhealthy: network", cache.getDetails().get(Health.SKIPPED_KEY));
+        assertEquals(0, invoked.get());
+    }
+    
+    @Test(timeout=1000)
+    public void testDependentSkippedWhenUpstreamTimesOut() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(
+                named("network", callback -> {}),
+                named("cache", callback -> callback.inform(Health.healthy().build()), "network"),
+                named("session", callback -> callback.inform(Health.healthy().build()), "cache")), 
+                50, TimeUnit.MILLISECONDS);
+        HealthCheckStatus aggregatedHealth = aggregator.check().get();
+        assertEquals(Health.Outcome.TIMEOUT, aggregatedHealth.getHealthResults().get(0).getOutcome());
+        assertEquals(Health.Outcome.SKIPPED, aggregatedHealth.getHealthResults().get(1).getOutcome());
+        assertEquals("upstream unhealthy: cache", 
+                aggregatedHealth.getHealthResults().get(2).getDetails().get(Health.SKIPPED_KEY));
+    }
+    
+    @Test(timeout=1000)
+    public void testDependentInvokedAfterUpstreamHealthy() throws Exception {
+        AtomicBoolean upstreamResponded = new AtomicBoolean();
+        AtomicBoolean invokedAfterUpstream = new AtomicBoolean();
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(
+                named("cache", callback -> {
+                    invokedAfterUpstream.set(upstreamResponded.get());
+                    callback.inform(Health.healthy().build());
+                }, "network", "dns"),
+                named("network", callback -> {
+                    upstreamResponded.set(true);
+                    callback.inform(Health.healthy().build());
+                }),
+                named("dns", callback -> callback.inform(Health.healthy().build()))), 1, TimeUnit.SECONDS);
+        HealthCheckStatus aggregatedHealth = aggregator.check().get();
+        assertTrue(aggregatedHealth.isHealthy());
+        assertEquals(Health.Outcome.HEALTHY, aggregatedHealth.getHealthResults().get(0).getOutcome());
+        assertTrue(invokedAfterUpstream.get());
+    }
+    
+    @Test(timeout=1000)
+    public void testIndependentIndicatorNotDelayed() throws Exception {
+        CountDownLatch independentInvoked = new CountDownLatch(1);
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(
+                named("network", callback -> {
+                    try {
+                        independentInvoked.await();
+                    } catch (InterruptedException e) {
+                    }
+                    callback.inform(Health.healthy().build());
+                }),
+                named("cache", callback -> callback.inform(Health.healthy().build()), "network"),
+                named("disk", callback -> {
+                    independentInvoked.countDown();
+                    callback.inform(Health.healthy().build());
+                })), 1, TimeUnit.SECONDS);
+        assertTrue(aggregator.check().get().isHealthy());
+    }
+    
+    @Test(timeout=1000)
+    public void testUnknownDependencyIgnored() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(
+                named("cache", callback -> callback.inform(Health.healthy().build()), "network")), 1, TimeUnit.SECONDS);
+        assertTrue(aggregator.check().get().isHealthy());
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testCyclicDependenciesRejected() throws Exception {
+        new SimpleHealthCheckAggregator(Arrays.asList(
+                named("a", callback -> callback.inform(Health.healthy().build()), "c"),
+                named("b", callback -> callback.inform(Health.healthy().build()), "a"),
+                named("c", callback -> callback.inform(Health.healthy().build()), "b")), 1, TimeUnit.SECONDS);
+    }
+}
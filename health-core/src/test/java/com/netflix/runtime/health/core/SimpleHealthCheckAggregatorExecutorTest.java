@@ -0,0 +1,139 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+
+public class SimpleHealthCheckAggregatorExecutorTest {
+
+    static HealthIndicator healthy = new HealthIndicator() {
+        @Override
+        public void check(HealthIndicatorCallback healthCallback) {
+            healthCallback.inform(Health.healthy().build());
+        }
+    };
+
+    @Test(timeout = 1000)
+    public void testSuppliedExecutorsUsedAndNotShutDown() throws Exception {
+        AtomicInteger submitted = new AtomicInteger();
+        ExecutorService delegate = Executors.newSingleThreadExecutor();
+        ExecutorService executor = new AbstractExecutorService() {
+            @Override
+            public void execute(Runnable command) {
+                submitted.incrementAndGet();
+                delegate.execute(command);
+            }
+
+            @Override
+            public void shutdown() {
+                delegate.shutdown();
+            }
+
+            @Override
+            public List<Runnable> shutdownNow() {
+                return delegate.shutdownNow();
+            }
+
+            @Override
+            public boolean isShutdown() {
+                return delegate.isShutdown();
+            }
+
+            @Override
+            public boolean isTerminated() {
+                return delegate.isTerminated();
+            }
+
+            @Override
+            public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+                return delegate.awaitTermination(timeout, unit);
+            }
+        };
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        SimpleHealthCheckAggregator aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(healthy, healthy))
+                .withMaxWaitTime(1, TimeUnit.SECONDS).withHealthCheckExecutor(executor)
+                .withScheduledExecutor(scheduler).build();
+
+        HealthCheckStatus aggregatedHealth = aggregator.check().get();
+        assertTrue(aggregatedHealth.isHealthy());
+        assertEquals(2, submitted.get());
+
+        aggregator.close();
+        assertFalse(executor.isShutdown());
+        assertFalse(scheduler.isShutdown());
+        executor.shutdown();
+        scheduler.shutdown();
+    }
+
+    @Test(timeout = 1000)
+    public void testOwnedExecutorShutDown() throws Exception {
+        ExecutorService executor = HealthCheckExecutors.newFixedThreadPool(2);
+        SimpleHealthCheckAggregator aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(healthy))
+                .withMaxWaitTime(1, TimeUnit.SECONDS).withHealthCheckExecutor(executor, true).build();
+        assertTrue(aggregator.check().get().isHealthy());
+
+        aggregator.close();
+        assertTrue(executor.isShutdown());
+    }
+
+    @Test(timeout = 1000)
+    public void testVirtualThreadPerTaskExecutorRunsAllIndicatorsConcurrently() throws Exception {
+        int count = 10;
+        CountDownLatch allStarted = new CountDownLatch(count);
+        List<HealthIndicator> indicators = new ArrayList<>();
+        for (int x = 0; x < count; x++) {
+            indicators.add(callback -> {
+                allStarted.countDown();
+                try {
+                    // only returns if every indicator is running at the same time
+                    callback.inform(allStarted.await(500, TimeUnit.MILLISECONDS) 
+                            ? Health.healthy().build() : Health.unhealthy().build());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        ExecutorService executor = HealthCheckExecutors.newVirtualThreadPerTaskExecutor();
+        SimpleHealthCheckAggregator aggregator = SimpleHealthCheckAggregator.builder(indicators)
+                .withMaxWaitTime(1, TimeUnit.SECONDS).withHealthCheckExecutor(executor).build();
+
+        HealthCheckStatus aggregatedHealth = aggregator.check().get();
+        assertTrue(aggregatedHealth.isHealthy());
+        assertEquals(count, aggregatedHealth.getHealthResults().size());
+        aggregator.close();
+        executor.shutdown();
+    }
+}
@@ -18,6 +18,10 @@ package com.netflix.runtime.health.core;
 import static org.junit.Assert.assertEquals;
 
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
@@ -28,6 +32,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import com.netflix.governator.event.ApplicationEventDispatcher;
 import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
 import com.netflix.runtime.health.api.HealthIndicator;
 import com.netflix.runtime.health.api.HealthIndicatorCallback;
 import com.netflix.spectator.api.DefaultRegistry;
@@ -90,5 +95,61 @@ public class SimpleHealthCheckAggregatorMetricsTest {
         aggregator = new SimpleHealthCheckAggregator(Arrays.asList(nonResponsive), 50, TimeUnit.MILLISECONDS, dispatcher, registry);
         aggregator.check().get();
         assertEquals(1, registry.counter("runtime.health", "status", "TIMEOUT").count());
+        assertEquals(1, registry.counter("runtime.health.indicator", "indicator", nonResponsive.getName(), 
+                "outcome", "TIMEOUT").count());
+    }
+    
+    @Test(timeout=1000)
+    public void testLatenciesAreRecorded() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(healthy, unhealthy), 1, TimeUnit.SECONDS, dispatcher, registry);
+        aggregator.check().get();
+        aggregator.check().get();
+        assertEquals(2, registry.timer("runtime.health.check").count());
+        String name = healthy.getName();
+        assertEquals(2, registry.timer("runtime.health.indicator.queueWait", "indicator", name).count());
+        assertEquals(2, registry.timer("runtime.health.indicator.latency", "indicator", name).count());
+    }
+    
+    @Test(timeout=1000)
+    public void testTimedOutLatencyIsNotRecorded() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(nonResponsive), 50, TimeUnit.MILLISECONDS, dispatcher, registry);
+        aggregator.check().get();
+        assertEquals(1, registry.timer("runtime.health.indicator.queueWait", "indicator", nonResponsive.getName()).count());
+        assertEquals(0, registry.timer("runtime.health.indicator.latency", "indicator", nonResponsive.getName()).count());
+    }
+    
+    @Test(timeout=2000)
+    public void testExecutorGauges() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        HealthIndicator blocking = new HealthIndicator() {
+            @Override
+            public void check(HealthIndicatorCallback healthCallback) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                }
+                healthCallback.inform(Health.healthy().build());
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(blocking, healthy))
+                .withMaxWaitTime(100, TimeUnit.MILLISECONDS).withEventDispatcher(dispatcher).withRegistry(registry)
+                .withHealthCheckExecutor(executor).build();
+        CompletableFuture<HealthCheckStatus> status = aggregator.check();
+        Thread.sleep(20);
+        assertEquals(1, gauge("runtime.health.executor.active"), 0);
+        assertEquals(1, gauge("runtime.health.executor.queued"), 0);
+        
+        // the queued indicator times out and is never run
+        status.get();
+        assertEquals(0, gauge("runtime.health.executor.queued"), 0);
+        release.countDown();
+        Thread.sleep(20);
+        assertEquals(0, gauge("runtime.health.executor.active"), 0);
+        executor.shutdown();
+    }
+    
+    private double gauge(String name) {
+        return registry.get(registry.createId(name)).measure().iterator().next().value();
     }
 }
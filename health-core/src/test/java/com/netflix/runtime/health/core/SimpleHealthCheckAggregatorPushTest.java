@@ -0,0 +1,146 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.netflix.governator.event.ApplicationEventDispatcher;
+import com.netflix.runtime.health.api.AbstractPushHealthIndicator;
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SimpleHealthCheckAggregatorPushTest {
+
+    @Mock ApplicationEventDispatcher dispatcher;
+
+    static class Pushed extends AbstractPushHealthIndicator {
+        final AtomicInteger checks = new AtomicInteger();
+
+        Pushed() {
+            super(Health.healthy().build());
+        }
+
+        void set(boolean healthy) {
+            publish(healthy ? Health.healthy().build() : Health.unhealthy().build());
+        }
+
+        @Override
+        public void check(HealthIndicatorCallback healthCallback) {
+            checks.incrementAndGet();
+            super.check(healthCallback);
+        }
+    }
+
+    static HealthIndicator healthy = new HealthIndicator() {
+        @Override
+        public void check(HealthIndicatorCallback healthCallback) {
+            healthCallback.inform(Health.healthy().build());
+        }
+    };
+
+    @Test(timeout = 1000)
+    public void testPushedHealthUsedWithoutInvokingIndicator() throws Exception {
+        Pushed pushed = new Pushed();
+        SimpleHealthCheckAggregator aggregator = new SimpleHealthCheckAggregator(Arrays.asList(healthy, pushed), 1, TimeUnit.SECONDS);
+        assertTrue(aggregator.check().get().isHealthy());
+        
+        pushed.set(false);
+        HealthCheckStatus status = aggregator.check().get();
+        assertFalse(status.isHealthy());
+        assertFalse(status.getHealthResults().get(1).isHealthy());
+        assertEquals(pushed.getName(), status.getHealthResults().get(1).getDetails().get(Health.NAME_KEY));
+        
+        pushed.set(true);
+        assertTrue(aggregator.check().get().isHealthy());
+        assertEquals(0, pushed.checks.get());
+        aggregator.close();
+    }
+
+    @Test(timeout = 1000)
+    public void testPushAppliedToRefreshedSnapshot() throws Exception {
+        Pushed pushed = new Pushed();
+        RefreshingHealthCheckAggregator aggregator = new RefreshingHealthCheckAggregator(Arrays.asList(healthy, pushed), 
+                1, 1, TimeUnit.HOURS, 1, TimeUnit.SECONDS);
+        // the snapshot of a refresh is served as an already completed future
+        while (!aggregator.check().isDone()) {
+            Thread.sleep(10);
+        }
+        
+        // served from the snapshot of the first refresh, without waiting for the next one
+        pushed.set(false);
+        assertFalse(aggregator.check().get().isHealthy());
+        pushed.set(true);
+        assertTrue(aggregator.check().get().isHealthy());
+        aggregator.close();
+    }
+
+    @Test(timeout = 1000)
+    public void testPushPublishesEventWithoutCheck() throws Exception {
+        Pushed pushed = new Pushed();
+        SimpleHealthCheckAggregator aggregator = new SimpleHealthCheckAggregator(Arrays.asList(pushed), 1, TimeUnit.SECONDS, dispatcher);
+        
+        pushed.set(true);
+        pushed.set(true);
+        pushed.set(false);
+        ArgumentCaptor<HealthCheckStatusChangedEvent> events = ArgumentCaptor.forClass(HealthCheckStatusChangedEvent.class);
+        Mockito.verify(dispatcher, Mockito.times(2)).publishEvent(events.capture());
+        assertTrue(events.getAllValues().get(0).getHealth().isHealthy());
+        assertFalse(events.getAllValues().get(1).getHealth().isHealthy());
+        aggregator.close();
+    }
+
+    @Test(timeout = 1000)
+    public void testPushAppliedToLastCheckWhenMixed() throws Exception {
+        Pushed pushed = new Pushed();
+        SimpleHealthCheckAggregator aggregator = new SimpleHealthCheckAggregator(Arrays.asList(healthy, pushed), 1, TimeUnit.SECONDS, dispatcher);
+        
+        // results of the polled indicator aren't known before the first check
+        pushed.set(false);
+        Mockito.verify(dispatcher, Mockito.never()).publishEvent(Mockito.any());
+        
+        assertFalse(aggregator.check().get().isHealthy());
+        pushed.set(true);
+        ArgumentCaptor<HealthCheckStatusChangedEvent> events = ArgumentCaptor.forClass(HealthCheckStatusChangedEvent.class);
+        Mockito.verify(dispatcher, Mockito.times(1)).publishEvent(events.capture());
+        assertTrue(events.getValue().getHealth().isHealthy());
+        aggregator.close();
+    }
+
+    @Test(timeout = 1000)
+    public void testCloseUnsubscribes() throws Exception {
+        Pushed pushed = new Pushed();
+        SimpleHealthCheckAggregator aggregator = new SimpleHealthCheckAggregator(Arrays.asList(pushed), 1, TimeUnit.SECONDS, dispatcher);
+        aggregator.close();
+        pushed.set(false);
+        Mockito.verify(dispatcher, Mockito.never()).publishEvent(Mockito.any());
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+
+public class SimpleHealthCheckAggregatorStressTest {
+
+    private static final int TARGET_RATE = 10000;
+    private static final long DURATION_MILLIS = 5000;
+    private static final long MAX_HEAP_GROWTH = 16 * 1024 * 1024;
+
+    SimpleHealthCheckAggregator aggregator;
+    ScheduledThreadPoolExecutor scheduler = (ScheduledThreadPoolExecutor) HealthCheckExecutors.newScheduledExecutor();
+
+    static HealthIndicator healthy = new HealthIndicator() {
+        @Override
+        public void check(HealthIndicatorCallback healthCallback) {
+            healthCallback.inform(Health.healthy().build());
+        }
+    };
+
+    @After
+    public void close() throws Exception {
+        aggregator.close();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Drives checks at {@link #TARGET_RATE} per second, paced over {@link #DURATION_MILLIS}, and samples the 
+     * timeout queue and the heap used after a full collection at each second. Both must stay flat once warmed up. 
+     * The heap samples rely on {@link System#gc()} actually collecting, so they catch leaks of megabytes, not bytes.
+     */
+    @Test(timeout = 30000)
+    public void testSustainedRateKeepsQueueAndHeapFlat() throws Exception {
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(healthy, healthy, healthy))
+                .withMaxWaitTime(10, TimeUnit.MINUTES).withScheduledExecutor(scheduler).build();
+        int threads = 8;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) * threads / TARGET_RATE;
+        AtomicInteger checks = new AtomicInteger();
+        AtomicInteger maxQueued = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(threads);
+
+        for (Future<?> warmup : runAtRate(callers, threads, intervalNanos, 1000, checks, maxQueued)) {
+            warmup.get();
+        }
+        long baselineHeap = usedHeapAfterGc();
+        checks.set(0);
+        maxQueued.set(0);
+
+        long started = System.nanoTime();
+        List<Future<?>> futures = runAtRate(callers, threads, intervalNanos, DURATION_MILLIS, checks, maxQueued);
+        List<Long> heapSamples = new ArrayList<>();
+        for (Future<?> future : futures) {
+            while (!future.isDone()) {
+                Thread.sleep(1000);
+                if (!future.isDone()) {
+                    heapSamples.add(usedHeapAfterGc());
+                }
+            }
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        callers.shutdown();
+        heapSamples.add(usedHeapAfterGc());
+
+        double rate = checks.get() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        assertThat(rate).as("achieved checks per second").isGreaterThan(TARGET_RATE / 2);
+        // each concurrent check has one timeout task queued, cancelled once the check completes and racing only 
+        // with the caller observing the result
+        assertThat(maxQueued.get()).isLessThan(threads * 10);
+        for (int x = 0; x < 10 && !scheduler.getQueue().isEmpty(); x++) {
+            Thread.sleep(10);
+        }
+        assertThat(scheduler.getQueue()).isEmpty();
+        for (long heap : heapSamples) {
+            assertThat(heap - baselineHeap).as("heap growth in bytes").isLessThan(MAX_HEAP_GROWTH);
+        }
+    }
+
+    private List<Future<?>> runAtRate(ExecutorService callers, int threads, long intervalNanos, long durationMillis, 
+            AtomicInteger checks, AtomicInteger maxQueued) {
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(callers.submit(() -> {
+                for (long next = System.nanoTime(); next < end; next += intervalNanos) {
+                    LockSupport.parkNanos(next - System.nanoTime());
+                    assertTrue(aggregator.check().get().isHealthy());
+                    checks.incrementAndGet();
+                    maxQueued.accumulateAndGet(scheduler.getQueue().size(), Math::max);
+                }
+                return null;
+            }));
+        }
+        return futures;
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        System.gc();
+        Thread.sleep(10);
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    @Test(timeout = 10000)
+    public void testCompletedChecksNotRetained() throws Exception {
+        WeakReference<?>[] callback = new WeakReference<?>[1];
+        HealthIndicator tracked = healthCallback -> {
+            callback[0] = new WeakReference<>(healthCallback);
+            healthCallback.inform(Health.healthy().build());
+        };
+        aggregator = SimpleHealthCheckAggregator.builder(Arrays.asList(tracked)).withMaxWaitTime(10, TimeUnit.MINUTES)
+                .withScheduledExecutor(scheduler).build();
+        assertTrue(aggregator.check().get().isHealthy());
+
+        for (int x = 0; x < 10 && callback[0].get() != null; x++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(callback[0].get());
+    }
+}
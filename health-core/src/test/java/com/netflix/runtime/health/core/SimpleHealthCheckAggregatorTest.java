@@ -19,6 +19,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -157,6 +158,7 @@ public class SimpleHealthCheckAggregatorTest {
         assertTrue(aggregatedHealth.isHealthy());
         assertEquals(1, aggregatedHealth.getHealthResults().size());
         assertEquals(1, aggregatedHealth.getSuppressedHealthResults().size());
+        assertEquals(Health.Outcome.SUPPRESSED, aggregatedHealth.getSuppressedHealthResults().get(0).getOutcome());
         assertThat(aggregatedHealth.getHealthResults()).extracting(h -> h.getDetails().get("className")).isNotNull();
     }
     
@@ -186,4 +188,52 @@ public class SimpleHealthCheckAggregatorTest {
         assertEquals(2, aggregatedHealth.getSuppressedHealthResults().size());
         assertThat(aggregatedHealth.getHealthResults()).extracting(h -> h.getDetails().get("className")).isNotNull();
     }
-}
\ No newline at end of file
+    
+    @Test(timeout = 1000)
+    public void testResultsInIndicatorOrder() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(unhealthy, healthy, exceptional, healthy), 1, TimeUnit.SECONDS);
+
+        HealthCheckStatus aggregatedHealth = aggregator.check(IndicatorMatchers.excludes(exceptional.getName()).build()).get();
+        assertFalse(aggregatedHealth.isHealthy());
+        assertThat(aggregatedHealth.getHealthResults()).extracting(Health::isHealthy).containsExactly(false, true, true);
+        assertThat(aggregatedHealth.getSuppressedHealthResults()).extracting(h -> h.getErrorMessage().get())
+                .containsExactly("java.lang.RuntimeException: Boom");
+        assertSame(aggregatedHealth.getHealthResults(), aggregatedHealth.getHealthResults());
+    }
+    
+    @Test(timeout = 1000)
+    public void testNullHealthReportedAsTimeout() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(healthy, callback -> callback.inform(null)), 1, TimeUnit.SECONDS);
+
+        HealthCheckStatus aggregatedHealth = aggregator.check().get();
+        assertFalse(aggregatedHealth.isHealthy());
+        assertEquals("java.util.concurrent.TimeoutException: Timed out waiting for response", 
+                aggregatedHealth.getHealthResults().get(1).getErrorMessage().get());
+    }
+    
+    @SuppressWarnings("deprecation")
+    @Test(timeout = 1000)
+    public void testStatusFromDeprecatedCallbacks() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(healthy, nonResponsive, unhealthy), 1, TimeUnit.SECONDS);
+        List<SimpleHealthCheckAggregator.HealthIndicatorCallbackImpl> callbacks = new ArrayList<>();
+        for (HealthIndicator indicator : Arrays.asList(healthy, nonResponsive, unhealthy)) {
+            SimpleHealthCheckAggregator.HealthIndicatorCallbackImpl callback = aggregator.new HealthIndicatorCallbackImpl(
+                    indicator, indicator == unhealthy) {
+                @Override
+                public void inform(Health status) {
+                    setHealth(status);
+                }
+            };
+            callbacks.add(callback);
+            if (indicator != nonResponsive) {
+                indicator.check(callback);
+            }
+        }
+
+        HealthCheckStatus aggregatedHealth = aggregator.getStatusFromCallbacks(callbacks);
+        assertFalse(aggregatedHealth.isHealthy());
+        assertThat(aggregatedHealth.getHealthResults()).extracting(Health::isHealthy).containsExactly(true, false);
+        assertEquals(Health.Outcome.TIMEOUT, aggregatedHealth.getHealthResults().get(1).getOutcome());
+        assertEquals(1, aggregatedHealth.getSuppressedHealthResults().size());
+    }
+}
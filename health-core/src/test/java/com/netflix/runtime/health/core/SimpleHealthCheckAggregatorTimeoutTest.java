@@ -0,0 +1,145 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+
+public class SimpleHealthCheckAggregatorTimeoutTest {
+
+    private static final String TIMEOUT_MESSAGE = "java.util.concurrent.TimeoutException: Timed out waiting for response";
+
+    SimpleHealthCheckAggregator aggregator;
+
+    static class NonResponsive implements HealthIndicator {
+        private final String name;
+        private final long timeout;
+
+        NonResponsive(String name, long timeout) {
+            this.name = name;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public void check(HealthIndicatorCallback healthCallback) {
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getTimeoutInMillis() {
+            return timeout;
+        }
+    }
+
+    static class Slow implements HealthIndicator {
+        private final long delay;
+        private final long timeout;
+
+        Slow(long delay, long timeout) {
+            this.delay = delay;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public void check(HealthIndicatorCallback healthCallback) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            healthCallback.inform(Health.healthy().build());
+        }
+
+        @Override
+        public long getTimeoutInMillis() {
+            return timeout;
+        }
+    }
+
+    @Test(timeout = 1000)
+    public void testIndicatorTimesOutBeforeAggregatorWaitTime() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(new NonResponsive("fast", 20), new Slow(100, 0)), 
+                5, TimeUnit.SECONDS);
+        long start = System.nanoTime();
+        HealthCheckStatus aggregatedHealth = aggregator.check().get();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertFalse(aggregatedHealth.isHealthy());
+        assertEquals(2, aggregatedHealth.getHealthResults().size());
+        Health timedOut = aggregatedHealth.getHealthResults().get(0);
+        assertEquals("fast", timedOut.getDetails().get(Health.NAME_KEY));
+        assertEquals(TIMEOUT_MESSAGE, timedOut.getErrorMessage().get());
+        assertEquals(Health.Outcome.TIMEOUT, timedOut.getOutcome());
+        assertTrue(aggregatedHealth.getHealthResults().get(1).isHealthy());
+        assertThat(elapsed).isLessThan(1000);
+    }
+
+    @Test(timeout = 1000)
+    public void testIndicatorTimeoutLongerThanAggregatorWaitTime() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(new Slow(100, 500)), 20, TimeUnit.MILLISECONDS);
+        HealthCheckStatus aggregatedHealth = aggregator.check().get();
+        assertTrue(aggregatedHealth.isHealthy());
+        assertFalse(aggregatedHealth.getHealthResults().get(0).getErrorMessage().isPresent());
+    }
+
+    @Test(timeout = 1000)
+    public void testEachTimeoutReportedIndividually() throws Exception {
+        aggregator = new SimpleHealthCheckAggregator(
+                Arrays.asList(new NonResponsive("a", 20), new NonResponsive("b", 60), new NonResponsive("c", 0)), 
+                40, TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+        HealthCheckStatus aggregatedHealth = aggregator.check().get();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertFalse(aggregatedHealth.isHealthy());
+        assertThat(aggregatedHealth.getHealthResults()).extracting(h -> h.getDetails().get(Health.NAME_KEY))
+                .containsExactly("a", "b", "c");
+        assertThat(aggregatedHealth.getHealthResults()).extracting(h -> h.getErrorMessage().get())
+                .containsOnly(TIMEOUT_MESSAGE);
+        assertThat(elapsed).isGreaterThanOrEqualTo(60);
+    }
+
+    @Test(timeout = 1000)
+    public void testReportedTimeoutIsNotClassifiedAsTimeout() throws Exception {
+        HealthIndicator downstreamTimeout = callback -> callback.inform(
+                Health.unhealthy(new TimeoutException("downstream")).build());
+        HealthIndicator failing = callback -> {
+            throw new IllegalStateException("Boom");
+        };
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(downstreamTimeout, failing), 1, TimeUnit.SECONDS);
+        HealthCheckStatus aggregatedHealth = aggregator.check().get();
+        assertThat(aggregatedHealth.getHealthResults()).extracting(Health::getOutcome)
+                .containsExactly(Health.Outcome.UNHEALTHY, Health.Outcome.ERROR);
+        assertFalse(((IndexedHealthCheckStatus) aggregatedHealth).hasTimedOutResults());
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+import com.netflix.runtime.health.api.IndicatorMatchers;
+
+public class SimpleHealthCheckAggregatorVersionTest {
+
+    SimpleHealthCheckAggregator aggregator;
+    AtomicBoolean toggleHealthy;
+    
+    static class Toggle implements HealthIndicator {
+        private final AtomicBoolean healthy;
+
+        Toggle(AtomicBoolean healthy) {
+            this.healthy = healthy;
+        }
+
+        @Override
+        public void check(HealthIndicatorCallback healthCallback) {
+            healthCallback.inform(healthy.get() ? Health.healthy().build() : Health.unhealthy().withDetail("reason", "toggled").build());
+        }
+
+        @Override
+        public String getName() {
+            return "toggle";
+        }
+    }
+    
+    static class Steady implements HealthIndicator {
+        @Override
+        public void check(HealthIndicatorCallback healthCallback) {
+            healthCallback.inform(Health.healthy().withDetail("steady", true).build());
+        }
+
+        @Override
+        public String getName() {
+            return "steady";
+        }
+    }
+    
+    @Before
+    public void init() {
+        toggleHealthy = new AtomicBoolean(true);
+        aggregator = new SimpleHealthCheckAggregator(Arrays.asList(new Toggle(toggleHealthy), new Steady()), 1, TimeUnit.SECONDS);
+    }
+    
+    @After
+    public void shutdown() throws Exception {
+        aggregator.close();
+    }
+
+    @Test(timeout=1000)
+    public void testUnchangedResultsKeepVersion() throws Exception {
+        HealthCheckStatus first = aggregator.check().get();
+        HealthCheckStatus second = aggregator.check().get();
+        assertTrue(first.getVersion() > 0);
+        assertSame(first, second);
+    }
+
+    @Test(timeout=1000)
+    public void testChangedResultsIncrementVersionAndShareUnchangedEntries() throws Exception {
+        HealthCheckStatus first = aggregator.check().get();
+        toggleHealthy.set(false);
+        HealthCheckStatus second = aggregator.check().get();
+        
+        assertFalse(second.isHealthy());
+        assertTrue(second.getVersion() > first.getVersion());
+        assertNotEquals(first.getHealthResults().get(0), second.getHealthResults().get(0));
+        assertSame(first.getHealthResults().get(1), second.getHealthResults().get(1));
+        
+        toggleHealthy.set(true);
+        HealthCheckStatus third = aggregator.check().get();
+        assertTrue(third.getVersion() > second.getVersion());
+    }
+
+    @Test(timeout=1000)
+    public void testChangedSuppressionIncrementsVersion() throws Exception {
+        HealthCheckStatus all = aggregator.check().get();
+        HealthCheckStatus suppressed = aggregator.check(IndicatorMatchers.excludes("toggle").build()).get();
+        assertEquals(1, suppressed.getSuppressedHealthResults().size());
+        assertTrue(suppressed.getVersion() > all.getVersion());
+        assertSame(all.getHealthResults().get(1), suppressed.getHealthResults().get(0));
+    }
+
+    @Test(timeout=1000)
+    public void testResultsUnmodifiable() throws Exception {
+        HealthCheckStatus status = aggregator.check().get();
+        assertThatThrownBy(() -> status.getHealthResults().clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> status.getSuppressedHealthResults().add(Health.healthy().build()))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+}
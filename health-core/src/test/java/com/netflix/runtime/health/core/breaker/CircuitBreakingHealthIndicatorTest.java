@@ -0,0 +1,232 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.core.breaker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+import com.netflix.runtime.health.core.breaker.CircuitBreakingHealthIndicator.State;
+import com.netflix.spectator.api.DefaultRegistry;
+
+public class CircuitBreakingHealthIndicatorTest {
+
+    AtomicInteger invocations;
+    AtomicBoolean healthy;
+    AtomicBoolean respond;
+    HealthIndicator delegate;
+    List<Health> healths;
+
+    @Before
+    public void init() {
+        invocations = new AtomicInteger();
+        healthy = new AtomicBoolean(false);
+        respond = new AtomicBoolean(true);
+        healths = new ArrayList<>();
+        delegate = callback -> {
+            invocations.incrementAndGet();
+            if (respond.get()) {
+                callback.inform(healthy.get() ? Health.healthy().build() 
+                        : Health.unhealthy(new IllegalStateException("down")).build());
+            }
+        };
+    }
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        CircuitBreakingHealthIndicator breaker = CircuitBreakingHealthIndicator.wrap(delegate, 3, 0, 1, 10, TimeUnit.SECONDS);
+        for (int i = 0; i < 10; i++) {
+            breaker.check(healths::add);
+        }
+        assertEquals(3, invocations.get());
+        assertEquals(State.OPEN, breaker.getState());
+        Health shortCircuited = healths.get(9);
+        assertFalse(shortCircuited.isHealthy());
+        assertEquals("OPEN", shortCircuited.getDetails().get(CircuitBreakingHealthIndicator.STATE_KEY));
+        assertEquals(Health.Outcome.CACHED, shortCircuited.getOutcome());
+        assertEquals("java.lang.IllegalStateException: down", shortCircuited.getErrorMessage().get());
+    }
+
+    @Test
+    public void testSuccessResetsFailures() {
+        CircuitBreakingHealthIndicator breaker = CircuitBreakingHealthIndicator.wrap(delegate, 2, 0, 1, 10, TimeUnit.SECONDS);
+        for (int i = 0; i < 5; i++) {
+            healthy.set(false);
+            breaker.check(healths::add);
+            healthy.set(true);
+            breaker.check(healths::add);
+        }
+        assertEquals(10, invocations.get());
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testProbeClosesCircuit() throws Exception {
+        CircuitBreakingHealthIndicator breaker = CircuitBreakingHealthIndicator.wrap(delegate, 1, 0, 50, 1000, TimeUnit.MILLISECONDS);
+        breaker.check(healths::add);
+        breaker.check(healths::add);
+        assertEquals(1, invocations.get());
+        Thread.sleep(60);
+        healthy.set(true);
+        breaker.check(healths::add);
+        assertEquals(2, invocations.get());
+        assertEquals(State.CLOSED, breaker.getState());
+        assertTrue(healths.get(2).isHealthy());
+    }
+
+    @Test
+    public void testProbeResponseReportsHalfOpen() throws Exception {
+        respond.set(false);
+        CircuitBreakingHealthIndicator breaker = CircuitBreakingHealthIndicator.wrap(delegate, 1, 20, 50, 1000, TimeUnit.MILLISECONDS);
+        breaker.check(healths::add);
+        Thread.sleep(30);
+        breaker.check(healths::add);
+        assertEquals(State.OPEN, breaker.getState());
+        Thread.sleep(60);
+        
+        // the probe hangs, so later calls are short-circuited while half-open
+        breaker.check(healths::add);
+        breaker.check(healths::add);
+        assertEquals(2, invocations.get());
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertEquals("HALF_OPEN", healths.get(1).getDetails().get(CircuitBreakingHealthIndicator.STATE_KEY));
+        
+        respond.set(true);
+        healthy.set(true);
+        Thread.sleep(30);
+        breaker.check(healths::add);
+        assertEquals(State.OPEN, breaker.getState());
+        Thread.sleep(110);
+        breaker.check(healths::add);
+        assertEquals(State.CLOSED, breaker.getState());
+        Health probe = healths.get(healths.size() - 1);
+        assertTrue(probe.isHealthy());
+        assertEquals("HALF_OPEN", probe.getDetails().get(CircuitBreakingHealthIndicator.STATE_KEY));
+    }
+
+    @Test
+    public void testHungCallNotForgottenByLaterCalls() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CircuitBreakingHealthIndicator breaker = CircuitBreakingHealthIndicator.wrap(callback -> {
+            // only the first call hangs
+            if (calls.incrementAndGet() > 1) {
+                callback.inform(Health.healthy().build());
+            }
+        }, 1, 20, 1000, 1000, TimeUnit.MILLISECONDS);
+        breaker.check(healths::add);
+        breaker.check(healths::add);
+        assertEquals(State.CLOSED, breaker.getState());
+        Thread.sleep(30);
+        breaker.check(healths::add);
+        assertEquals(2, calls.get());
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testOnlyProbeClosesHalfOpenCircuit() throws Exception {
+        List<HealthIndicatorCallback> pending = new ArrayList<>();
+        CircuitBreakingHealthIndicator breaker = CircuitBreakingHealthIndicator.wrap(callback -> {
+            if (invocations.incrementAndGet() == 2) {
+                callback.inform(Health.unhealthy(new IllegalStateException("down")).build());
+            } else {
+                pending.add(callback);
+            }
+        }, 1, 0, 50, 1000, TimeUnit.MILLISECONDS);
+        breaker.check(healths::add);
+        breaker.check(healths::add);
+        assertEquals(State.OPEN, breaker.getState());
+        Thread.sleep(60);
+        breaker.check(healths::add);
+        assertEquals(3, invocations.get());
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        
+        // late success of the call made before the circuit opened
+        pending.get(0).inform(Health.healthy().build());
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        
+        pending.get(1).inform(Health.healthy().build());
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testFailedProbeBacksOff() throws Exception {
+        CircuitBreakingHealthIndicator breaker = CircuitBreakingHealthIndicator.wrap(delegate, 1, 0, 50, 1000, TimeUnit.MILLISECONDS);
+        breaker.check(healths::add);
+        Thread.sleep(60);
+        breaker.check(healths::add);
+        assertEquals(2, invocations.get());
+        assertEquals(State.OPEN, breaker.getState());
+
+        // open for 100ms after the failed probe
+        Thread.sleep(60);
+        breaker.check(healths::add);
+        assertEquals(2, invocations.get());
+        Thread.sleep(60);
+        breaker.check(healths::add);
+        assertEquals(3, invocations.get());
+    }
+
+    @Test
+    public void testUnresponsiveDelegateCountsAsTimeout() throws Exception {
+        respond.set(false);
+        CircuitBreakingHealthIndicator breaker = CircuitBreakingHealthIndicator.wrap(delegate, 1, 20, 1000, 1000, TimeUnit.MILLISECONDS);
+        breaker.check(healths::add);
+        assertEquals(State.CLOSED, breaker.getState());
+        Thread.sleep(30);
+        breaker.check(healths::add);
+        assertEquals(1, invocations.get());
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(1, healths.size());
+        assertEquals(Health.Outcome.CACHED, healths.get(0).getOutcome());
+        assertTrue(healths.get(0).getErrorMessage().get().contains("TimeoutException"));
+    }
+
+    @Test
+    public void testExceptionCountsAsFailure() {
+        CircuitBreakingHealthIndicator breaker = CircuitBreakingHealthIndicator.wrap(callback -> {
+            invocations.incrementAndGet();
+            throw new IllegalStateException("Boom");
+        }, 1, 0, 1, 1, TimeUnit.SECONDS);
+        breaker.check(healths::add);
+        breaker.check(healths::add);
+        assertEquals(1, invocations.get());
+        assertEquals(Health.Outcome.ERROR, healths.get(0).getOutcome());
+    }
+
+    @Test
+    public void testMetrics() {
+        DefaultRegistry registry = new DefaultRegistry();
+        CircuitBreakingHealthIndicator breaker = CircuitBreakingHealthIndicator.wrap(delegate, 1, 0, 1, 1, TimeUnit.SECONDS, registry);
+        breaker.check(healths::add);
+        breaker.check(healths::add);
+        breaker.check(healths::add);
+        assertEquals(2, registry.counter("runtime.health.circuitBreaker.shortCircuited", "indicator", delegate.getName()).count());
+        assertEquals(1, registry.get(registry.createId("runtime.health.circuitBreaker.state", "indicator", delegate.getName()))
+                .measure().iterator().next().value(), 0);
+    }
+}
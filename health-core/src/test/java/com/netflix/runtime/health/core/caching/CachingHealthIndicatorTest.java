@@ -14,6 +14,13 @@ package com.netflix.runtime.health.core.caching;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -69,6 +76,18 @@ public class CachingHealthIndicatorTest {
 
     }
 
+    @Test
+    public void testCachedOutcome() {
+        CachingHealthIndicator cachedIndicator = CachingHealthIndicator.wrap(testHealthIndicator, 100,
+                TimeUnit.MILLISECONDS);
+        List<Health> healths = new ArrayList<>();
+        cachedIndicator.check(healths::add);
+        cachedIndicator.check(healths::add);
+        assertEquals(Health.Outcome.HEALTHY, healths.get(0).getOutcome());
+        assertEquals(Health.Outcome.CACHED, healths.get(1).getOutcome());
+        assertTrue(healths.get(1).isHealthy());
+    }
+
     @Test
     public void testWithCachingAndExpiry() throws InterruptedException {
         CachingHealthIndicator cachedIndicator = CachingHealthIndicator.wrap(testHealthIndicator, 100,
@@ -100,6 +119,91 @@ public class CachingHealthIndicatorTest {
 
     }
 
+    @Test
+    public void testRefreshAhead() throws InterruptedException {
+        CachingHealthIndicator cachedIndicator = CachingHealthIndicator.wrap(testHealthIndicator, 200,
+                TimeUnit.MILLISECONDS, 0.5, null);
+        cachedIndicator.check(new CallbackShim());
+        assertEquals(1, realCount.get());
+        Thread.sleep(120);
+
+        // past the refresh-ahead point: cached value returned, delegate refreshed after the callback
+        CallbackShim refreshAhead = new CallbackShim();
+        cachedIndicator.check(refreshAhead);
+        assertEquals(true, refreshAhead.status.getDetails().get("cached"));
+        assertEquals(2, realCount.get());
+
+        // entry refreshed, so no further calls to the delegate
+        CallbackShim cached = new CallbackShim();
+        cachedIndicator.check(cached);
+        assertEquals(true, cached.status.getDetails().get("cached"));
+        assertEquals(2, realCount.get());
+    }
+
+    @Test
+    public void testConcurrentCallersWaitForFirstLoad() {
+        List<HealthIndicatorCallback> pending = new ArrayList<>();
+        CachingHealthIndicator cachedIndicator = CachingHealthIndicator.wrap(c -> {
+            realCount.incrementAndGet();
+            pending.add(c);
+        }, 100, TimeUnit.MILLISECONDS);
+        CallbackShim first = new CallbackShim();
+        CallbackShim second = new CallbackShim();
+        cachedIndicator.check(first);
+        cachedIndicator.check(second);
+        assertNull(first.status);
+        assertNull(second.status);
+        assertEquals(1, realCount.get());
+
+        pending.get(0).inform(Health.healthy().build());
+        assertTrue(first.status.isHealthy());
+        assertTrue(second.status.isHealthy());
+    }
+
+    @Test
+    public void testDelegateExceptionReportedUnhealthy() {
+        CachingHealthIndicator cachedIndicator = CachingHealthIndicator.wrap(c -> {
+            realCount.incrementAndGet();
+            throw new IllegalStateException("failed");
+        }, 100, TimeUnit.MILLISECONDS);
+        CallbackShim shim = new CallbackShim();
+        cachedIndicator.check(shim);
+        assertFalse(shim.status.isHealthy());
+
+        // failures aren't cached
+        cachedIndicator.check(new CallbackShim());
+        assertEquals(2, realCount.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testConcurrentCallersOfFailedFirstLoadNeverInformedNull() throws Exception {
+        CachingHealthIndicator cachedIndicator = CachingHealthIndicator.wrap(c -> {
+            realCount.incrementAndGet();
+            throw new IllegalStateException("failed");
+        }, 100, TimeUnit.MILLISECONDS);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < 500; i++) {
+                CyclicBarrier barrier = new CyclicBarrier(threads);
+                List<Future<Health>> healths = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    healths.add(executor.submit(() -> {
+                        barrier.await();
+                        CompletableFuture<Health> health = new CompletableFuture<>();
+                        cachedIndicator.check(health::complete);
+                        return health.get();
+                    }));
+                }
+                for (Future<Health> health : healths) {
+                    assertFalse(health.get().isHealthy());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private class CallbackShim implements HealthIndicatorCallback {
 
         public Health status;
@@ -19,6 +19,9 @@ import com.netflix.archaius.api.annotations.Configuration;
 import com.netflix.archaius.api.annotations.DefaultValue;
 import com.netflix.runtime.health.api.HealthCheckAggregator;
 import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.core.HealthCheckStatusChangedEvent;
+import com.netflix.runtime.health.core.HealthStatusDamper;
+import com.netflix.runtime.health.core.breaker.CircuitBreakingHealthIndicator;
 
 @Configuration(prefix="health.aggregator")
 public interface HealthAggregatorConfiguration {
@@ -36,6 +39,13 @@ public interface HealthAggregatorConfiguration {
     @DefaultValue("5000")
     long getCacheIntervalInMillis();
     
+    /***
+     * Fraction of the cache interval after which a cached {@link HealthIndicator} response is still returned, 
+     * but the indicator is refreshed in the background. Values of 1 or more disable refresh-ahead.
+     */
+    @DefaultValue("1.0")
+    double getCacheRefreshAheadFactor();
+    
     /***
      * Number of milliseconds for which the {@link HealthCheckAggregator} should wait for the response
      * of any {@link HealthIndicator} before considering it as unhealthy and canceling invocation.
@@ -43,4 +53,101 @@ public interface HealthAggregatorConfiguration {
     @DefaultValue("1000")
     long getAggregatorWaitIntervalInMillis();
     
+    /***
+     * Number of threads used to invoke {@link HealthIndicator}s. Ignored if useVirtualThreads is enabled or an
+     * executor is bound through {@link HealthModule}.
+     */
+    @DefaultValue("3")
+    int getExecutorPoolSize();
+    
+    /***
+     * Should each {@link HealthIndicator} invocation run in its own virtual thread. Requires JDK 21 or later, 
+     * older JDKs fall back to a platform thread per concurrent invocation.
+     */
+    @DefaultValue("false")
+    boolean useVirtualThreads();
+    
+    /***
+     * Should concurrent checks share a single in-flight invocation of the {@link HealthIndicator}s rather than
+     * each invoking every indicator.
+     */
+    @DefaultValue("false")
+    boolean coalesceConcurrentChecks();
+    
+    /***
+     * Should {@link HealthIndicator}s be invoked on a background schedule, with the {@link HealthCheckAggregator}
+     * serving the most recently computed status instead of invoking every indicator on each check.
+     */
+    @DefaultValue("false")
+    boolean refreshInBackground();
+    
+    /***
+     * Number of milliseconds between the completion of one background refresh and the start of the next one.
+     * Only used if refreshInBackground is enabled.
+     */
+    @DefaultValue("5000")
+    long getRefreshIntervalInMillis();
+    
+    /***
+     * Maximum age in milliseconds of a background refreshed status. Once exceeded, the {@link HealthCheckAggregator}
+     * invokes every {@link HealthIndicator} directly until a refresh completes again. Only used if refreshInBackground is enabled.
+     */
+    @DefaultValue("15000")
+    long getMaxStalenessInMillis();
+    
+    /***
+     * Number of consecutive checks which must report a change of health before a {@link HealthCheckStatusChangedEvent} 
+     * is published.
+     */
+    @DefaultValue("1")
+    int getEventConsecutiveResults();
+    
+    /***
+     * Minimum number of milliseconds between two {@link HealthCheckStatusChangedEvent}s.
+     */
+    @DefaultValue("0")
+    long getEventMinDwellInMillis();
+    
+    /***
+     * Should {@link HealthIndicator}s, and the aggregated health, which repeatedly flip between healthy and unhealthy 
+     * be considered unhealthy until they stabilize. See {@link HealthStatusDamper}.
+     */
+    @DefaultValue("false")
+    boolean dampFlappingHealth();
+    
+    /***
+     * Number of milliseconds in which the penalty for a flip between healthy and unhealthy decays to half its value.
+     * Only used if dampFlappingHealth is enabled.
+     */
+    @DefaultValue("60000")
+    long getFlapHalfLifeInMillis();
+    
+    /***
+     * Maximum number of milliseconds for which a flapping {@link HealthIndicator} is considered unhealthy.
+     * Only used if dampFlappingHealth is enabled.
+     */
+    @DefaultValue("240000")
+    long getFlapMaxSuppressInMillis();
+    
+    /***
+     * Number of consecutive failures (unhealthy responses, exceptions or calls exceeding the aggregator wait interval)
+     * after which a {@link HealthIndicator} is no longer invoked, and its last unhealthy response returned instead, 
+     * until a probe succeeds. 0 disables the circuit breaker. See {@link CircuitBreakingHealthIndicator}.
+     */
+    @DefaultValue("0")
+    int getCircuitBreakerFailureThreshold();
+    
+    /***
+     * Number of milliseconds after which an open circuit breaker first probes its {@link HealthIndicator}. 
+     * Doubled after each failed probe.
+     */
+    @DefaultValue("5000")
+    long getCircuitBreakerOpenIntervalInMillis();
+    
+    /***
+     * Maximum number of milliseconds between probes of an open circuit breaker.
+     */
+    @DefaultValue("60000")
+    long getCircuitBreakerMaxOpenIntervalInMillis();
+    
 }
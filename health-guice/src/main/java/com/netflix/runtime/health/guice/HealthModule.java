@@ -17,8 +17,12 @@ package com.netflix.runtime.health.guice;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import javax.inject.Provider;
 import javax.inject.Singleton;
@@ -27,8 +31,11 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
 import com.google.inject.Key;
 import com.google.inject.Provides;
+import com.google.inject.Scopes;
 import com.google.inject.binder.LinkedBindingBuilder;
 import com.google.inject.multibindings.Multibinder;
+import com.google.inject.name.Named;
+import com.google.inject.name.Names;
 import com.netflix.archaius.ConfigProxyFactory;
 import com.netflix.archaius.guice.ArchaiusModule;
 import com.netflix.governator.event.ApplicationEventDispatcher;
@@ -36,9 +43,19 @@ import com.netflix.governator.event.guava.GuavaApplicationEventModule;
 import com.netflix.runtime.health.api.HealthCheckAggregator;
 import com.netflix.runtime.health.api.HealthCheckStatus;
 import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.IndicatorMatcher;
+import com.netflix.runtime.health.api.PushHealthIndicator;
+import com.netflix.runtime.health.core.HealthCheckExecutors;
+import com.netflix.runtime.health.core.HealthCheckGroup;
 import com.netflix.runtime.health.core.HealthCheckStatusChangedEvent;
+import com.netflix.runtime.health.core.HealthStatusDamper;
+import com.netflix.runtime.health.core.RefreshingHealthCheckAggregator;
 import com.netflix.runtime.health.core.SimpleHealthCheckAggregator;
+import com.netflix.runtime.health.core.SimpleHealthCheckAggregator.AbstractBuilder;
+import com.netflix.runtime.health.core.breaker.CircuitBreakingHealthIndicator;
+import com.netflix.runtime.health.core.caching.CachingHealthIndicator;
 import com.netflix.runtime.health.core.caching.DefaultCachingHealthCheckAggregator;
+import com.netflix.spectator.api.Registry;
 
 /***
  * Guice module for installing runtime-health components. Installing this module
@@ -56,8 +73,16 @@ import com.netflix.runtime.health.core.caching.DefaultCachingHealthCheckAggregat
  * }).createInjector()
  * </code>
  * 
+ * Groups of indicators, for example for liveness and readiness probes, are registered with 
+ * {@link #bindHealthGroup(String, IndicatorMatcher, HealthCheckGroup.Rule)}. Each group is bound as a 
+ * {@link HealthCheckGroup} named after the group, and all groups share the evaluations of the application's 
+ * {@link HealthCheckAggregator}. The health status servlets serve a group at their path followed by "/" and 
+ * the group's name.
  */
 public class HealthModule extends AbstractModule {
+    
+    private static final String HEALTH_CHECK_EXECUTOR = "healthCheckExecutor";
+    private static final String HEALTH_CHECK_SCHEDULER = "healthCheckScheduler";
 
     @Override
     final protected void configure() {
@@ -74,6 +99,32 @@ public class HealthModule extends AbstractModule {
     final protected LinkedBindingBuilder<HealthIndicator> bindAdditionalHealthIndicator() {
         return Multibinder.newSetBinder(binder(), HealthIndicator.class).addBinding();
     }
+    
+    /***
+     * Register a group of the indicators matched by matcher, whose health is combined according to rule. 
+     * See {@link HealthCheckGroup}.
+     */
+    final protected void bindHealthGroup(String name, IndicatorMatcher matcher, HealthCheckGroup.Rule rule) {
+        Key<HealthCheckGroup> key = Key.get(HealthCheckGroup.class, Names.named(name));
+        bind(key).toProvider(new HealthGroupProvider(name, matcher, rule)).in(Scopes.SINGLETON);
+        Multibinder.newSetBinder(binder(), HealthCheckGroup.class).addBinding().to(key);
+    }
+    
+    /***
+     * Provide the executor on which {@link HealthIndicator}s are invoked, replacing the pool configured through
+     * {@link HealthAggregatorConfiguration}. The executor is owned by the caller and not shut down by runtime-health.
+     */
+    final protected LinkedBindingBuilder<ExecutorService> bindHealthCheckExecutor() {
+        return bind(Key.get(ExecutorService.class, Names.named(HEALTH_CHECK_EXECUTOR)));
+    }
+    
+    /***
+     * Provide the scheduler used to time out {@link HealthIndicator}s. The scheduler is owned by the caller and 
+     * not shut down by runtime-health.
+     */
+    final protected LinkedBindingBuilder<ScheduledExecutorService> bindHealthCheckScheduler() {
+        return bind(Key.get(ScheduledExecutorService.class, Names.named(HEALTH_CHECK_SCHEDULER)));
+    }
 
     private final static class InternalHealthModule extends AbstractModule {
         
@@ -87,6 +138,7 @@ public class HealthModule extends AbstractModule {
         protected void configure() {
             install(new GuavaApplicationEventModule());
             requireBinding(Key.get(ConfigProxyFactory.class));
+            Multibinder.newSetBinder(binder(), HealthCheckGroup.class);
             bind(HealthCheckAggregator.class).toProvider(HealthProvider.class).asEagerSingleton();
         }
         
@@ -106,6 +158,31 @@ public class HealthModule extends AbstractModule {
         }
     }
     
+    private static class HealthGroupProvider implements Provider<HealthCheckGroup> {
+        
+        private final String name;
+        private final IndicatorMatcher matcher;
+        private final HealthCheckGroup.Rule rule;
+        
+        @Inject
+        private HealthCheckAggregator aggregator;
+        
+        HealthGroupProvider(String name, IndicatorMatcher matcher, HealthCheckGroup.Rule rule) {
+            this.name = name;
+            this.matcher = matcher;
+            this.rule = rule;
+        }
+        
+        @Override
+        public HealthCheckGroup get() {
+            if (!(aggregator instanceof SimpleHealthCheckAggregator)) {
+                throw new IllegalStateException("Health group " + name + " requires a SimpleHealthCheckAggregator, but " 
+                        + aggregator.getClass().getName() + " is bound");
+            }
+            return ((SimpleHealthCheckAggregator) aggregator).group(name, matcher, rule);
+        }
+    }
+    
     private static class HealthProvider implements Provider<HealthCheckAggregator> {
 
         @Inject(optional = true)
@@ -116,20 +193,93 @@ public class HealthModule extends AbstractModule {
 
         @Inject
         private ApplicationEventDispatcher dispatcher;
+        
+        @Inject(optional = true)
+        @Named(HEALTH_CHECK_EXECUTOR)
+        private ExecutorService executor;
+        
+        @Inject(optional = true)
+        @Named(HEALTH_CHECK_SCHEDULER)
+        private ScheduledExecutorService scheduler;
+        
+        @Inject(optional = true)
+        private Registry registry;
 
         @Override
         public HealthCheckAggregator get() {
             if (indicators == null) {
                 indicators = Collections.emptySet();
             }
-            if (config.cacheHealthIndicators()) {
-                return new DefaultCachingHealthCheckAggregator(new ArrayList<HealthIndicator>(indicators),
-                        config.getCacheIntervalInMillis(), TimeUnit.MILLISECONDS, config.getAggregatorWaitIntervalInMillis(),
-                        TimeUnit.MILLISECONDS, dispatcher);
+            // a pool created here is owned, and shut down, by the aggregator
+            boolean ownsExecutor = executor == null;
+            ExecutorService executor = ownsExecutor 
+                    ? (config.useVirtualThreads() 
+                            ? HealthCheckExecutors.newVirtualThreadPerTaskExecutor()
+                            : HealthCheckExecutors.newFixedThreadPool(config.getExecutorPoolSize()))
+                    : this.executor;
+            List<HealthIndicator> wrapped = wrapWithCircuitBreakers(indicators);
+            if (config.refreshInBackground()) {
+                List<HealthIndicator> refreshed = wrapped;
+                if (config.cacheHealthIndicators()) {
+                    refreshed = refreshed.stream()
+                            .map(delegate -> delegate instanceof PushHealthIndicator ? delegate 
+                                    : CachingHealthIndicator.wrap(delegate, config.getCacheIntervalInMillis(), TimeUnit.MILLISECONDS,
+                                            config.getCacheRefreshAheadFactor(), null))
+                            .collect(Collectors.toList());
+                }
+                return configure(RefreshingHealthCheckAggregator.builder(refreshed, config.getRefreshIntervalInMillis(),
+                        config.getMaxStalenessInMillis(), TimeUnit.MILLISECONDS), executor, ownsExecutor).build();
+            } else if (config.cacheHealthIndicators()) {
+                return configure(DefaultCachingHealthCheckAggregator.builder(wrapped, config.getCacheIntervalInMillis(), 
+                        TimeUnit.MILLISECONDS).withRefreshAheadFactor(config.getCacheRefreshAheadFactor()), 
+                        executor, ownsExecutor).build();
             } else {
-                return new SimpleHealthCheckAggregator(new ArrayList<HealthIndicator>(indicators),
-                        config.getAggregatorWaitIntervalInMillis(), TimeUnit.MILLISECONDS, dispatcher);
+                return configure(SimpleHealthCheckAggregator.builder(wrapped), executor, ownsExecutor).build();
+            }
+        }
+        
+        private <B extends AbstractBuilder<B>> B configure(B builder, ExecutorService executor, boolean ownsExecutor) {
+            return builder.withMaxWaitTime(config.getAggregatorWaitIntervalInMillis(), TimeUnit.MILLISECONDS)
+                    .withEventDispatcher(dispatcher)
+                    .withRegistry(registry)
+                    .withCoalescedChecks(config.coalesceConcurrentChecks())
+                    .withHealthCheckExecutor(executor, ownsExecutor)
+                    .withScheduledExecutor(scheduler)
+                    .withDamper(createDamper());
+        }
+        
+        /**
+         * Circuit breakers wrap each invoked indicator, inside any cache, so that cached responses don't count
+         * towards the breaker. A call fails after the indicator's own timeout, if it has one, or the aggregator wait
+         * interval otherwise.
+         */
+        private List<HealthIndicator> wrapWithCircuitBreakers(Set<HealthIndicator> indicators) {
+            if (config.getCircuitBreakerFailureThreshold() <= 0) {
+                return new ArrayList<HealthIndicator>(indicators);
+            }
+            return indicators.stream()
+                    .map(delegate -> delegate instanceof PushHealthIndicator ? delegate 
+                            : CircuitBreakingHealthIndicator.wrap(delegate, config.getCircuitBreakerFailureThreshold(), 
+                                    delegate.getTimeoutInMillis() > 0 ? delegate.getTimeoutInMillis() 
+                                            : config.getAggregatorWaitIntervalInMillis(), 
+                                    config.getCircuitBreakerOpenIntervalInMillis(), 
+                                    config.getCircuitBreakerMaxOpenIntervalInMillis(), TimeUnit.MILLISECONDS, registry))
+                    .collect(Collectors.toList());
+        }
+        
+        private HealthStatusDamper createDamper() {
+            if (config.getEventConsecutiveResults() <= 1 && config.getEventMinDwellInMillis() <= 0 
+                    && !config.dampFlappingHealth()) {
+                return null;
+            }
+            HealthStatusDamper.Builder builder = HealthStatusDamper.builder()
+                    .withConsecutiveResults(Math.max(1, config.getEventConsecutiveResults()))
+                    .withMinDwell(config.getEventMinDwellInMillis(), TimeUnit.MILLISECONDS);
+            if (config.dampFlappingHealth()) {
+                builder.withFlapDamping(config.getFlapHalfLifeInMillis(), config.getFlapMaxSuppressInMillis(), 
+                        TimeUnit.MILLISECONDS);
             }
+            return builder.build();
         }
     }
 }
@@ -15,14 +15,20 @@
  */
 package com.netflix.runtime.health.guice;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.*;
 
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 import org.junit.Test;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.Multibinder;
+import com.google.inject.name.Names;
+import com.netflix.archaius.config.MapConfig;
 import com.netflix.archaius.guice.ArchaiusModule;
 import com.netflix.governator.InjectorBuilder;
 import com.netflix.governator.LifecycleInjector;
@@ -31,6 +37,9 @@ import com.netflix.runtime.health.api.HealthCheckAggregator;
 import com.netflix.runtime.health.api.HealthCheckStatus;
 import com.netflix.runtime.health.api.HealthIndicator;
 import com.netflix.runtime.health.api.HealthIndicatorCallback;
+import com.netflix.runtime.health.api.IndicatorMatchers;
+import com.netflix.runtime.health.core.HealthCheckGroup;
+import com.netflix.runtime.health.core.RefreshingHealthCheckAggregator;
 
 public class HealthModuleTest {
 
@@ -115,5 +124,48 @@ public class HealthModuleTest {
         assertEquals(2, healthCheckStatus.getHealthResults().size());
     }
 
+    @Test
+    public void testRefreshInBackgroundConfigured() throws InterruptedException, ExecutionException {
+        LifecycleInjector injector = InjectorBuilder.fromModules(new HealthModule() {
+            @Override
+            protected void configureHealth() {
+                bindAdditionalHealthIndicator().toInstance(healthy);
+            }
+        }, new ArchaiusModule() {
+            @Override
+            protected void configureArchaius() {
+                bindApplicationConfigurationOverride().toInstance(MapConfig.builder()
+                        .put("health.aggregator.refreshInBackground", "true")
+                        .build());
+            }
+        }).createInjector();
+        HealthCheckAggregator aggregator = injector.getInstance(HealthCheckAggregator.class);
+        assertThat(aggregator).isInstanceOf(RefreshingHealthCheckAggregator.class);
+        HealthCheckStatus healthCheckStatus = aggregator.check().get();
+        assertTrue(healthCheckStatus.isHealthy());
+        assertEquals(1, healthCheckStatus.getHealthResults().size());
+    }
+
+    @Test
+    public void testHealthGroups() throws InterruptedException, ExecutionException {
+        LifecycleInjector injector = InjectorBuilder.fromModules(new HealthModule() {
+            @Override
+            protected void configureHealth() {
+                bindAdditionalHealthIndicator().toInstance(healthy);
+                bindAdditionalHealthIndicator().toInstance(unhealthy);
+                bindHealthGroup("liveness", IndicatorMatchers.excludes(unhealthy.getName()).build(), 
+                        HealthCheckGroup.Rule.ALL_HEALTHY);
+                bindHealthGroup("readiness", IndicatorMatchers.build(), HealthCheckGroup.Rule.ALL_HEALTHY);
+            }
+        }, new ArchaiusModule()).createInjector();
+        HealthCheckGroup liveness = injector.getInstance(Key.get(HealthCheckGroup.class, Names.named("liveness")));
+        assertTrue(liveness.check().get().isHealthy());
+        assertEquals(1, liveness.check().get().getSuppressedHealthResults().size());
+        HealthCheckGroup readiness = injector.getInstance(Key.get(HealthCheckGroup.class, Names.named("readiness")));
+        assertFalse(readiness.check().get().isHealthy());
+        assertThat(injector.getInstance(Key.get(new TypeLiteral<Set<HealthCheckGroup>>() {})))
+                .containsOnly(liveness, readiness);
+    }
+
 }
 
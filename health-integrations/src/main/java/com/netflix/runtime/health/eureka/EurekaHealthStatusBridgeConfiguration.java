@@ -0,0 +1,37 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.eureka;
+
+import com.netflix.archaius.api.annotations.Configuration;
+import com.netflix.archaius.api.annotations.DefaultValue;
+
+@Configuration(prefix="health.eureka")
+public interface EurekaHealthStatusBridgeConfiguration {
+
+    /***
+     * Report the last known health status to Eureka rather than blocking its heartbeat thread
+     * until a check completes. See {@link HealthAggregatorEurekaHealthCheckHandler}.
+     */
+    @DefaultValue("false")
+    boolean useLastKnownStatus();
+
+    /***
+     * Maximum time to wait for a fresh health status before falling back to the last known status.
+     * Only applies when {@link #useLastKnownStatus()} is enabled.
+     */
+    @DefaultValue("100")
+    long getMaxWaitInMillis();
+}
@@ -16,6 +16,7 @@
 package com.netflix.runtime.health.eureka;
 
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -25,6 +26,7 @@ import com.google.inject.Provider;
 import com.netflix.appinfo.ApplicationInfoManager;
 import com.netflix.appinfo.ApplicationInfoManager.StatusChangeListener;
 import com.netflix.appinfo.HealthCheckHandler;
+import com.netflix.archaius.ConfigProxyFactory;
 import com.netflix.discovery.EurekaClient;
 import com.netflix.discovery.StatusChangeEvent;
 import com.netflix.governator.event.ApplicationEventDispatcher;
@@ -32,6 +34,7 @@ import com.netflix.governator.spi.LifecycleListener;
 import com.netflix.runtime.health.api.HealthCheckAggregator;
 import com.netflix.runtime.health.api.HealthCheckStatus;
 import com.netflix.runtime.health.api.IndicatorMatcher;
+import com.netflix.spectator.api.Registry;
 
 /**
  * Installing this module couples Eureka status (UP/DOWN/STARTING) to {@link HealthCheckStatus}. After injector creation, Eureka will be provided
@@ -42,6 +45,9 @@ import com.netflix.runtime.health.api.IndicatorMatcher;
  * Please note that prior to injector creation being completed, Eureka will
  * remain at its default status of STARTING unless it is explicitly set
  * otherwise.
+ * 
+ * When Archaius is available, setting health.eureka.useLastKnownStatus=true makes the handler report
+ * the last known status instead of blocking Eureka until a check completes. See {@link EurekaHealthStatusBridgeConfiguration}.
  */
 public class EurekaHealthStatusBridgeModule extends AbstractModule {
 
@@ -66,6 +72,10 @@ public class EurekaHealthStatusBridgeModule extends AbstractModule {
          */
         @com.google.inject.Inject(optional=true)
         private IndicatorMatcher matcher;
+        @com.google.inject.Inject(optional=true)
+        private ConfigProxyFactory configProxyFactory;
+        @com.google.inject.Inject(optional=true)
+        private Registry registry;
 
         @PostConstruct
         public void init() throws InterruptedException, ExecutionException {
@@ -87,8 +97,18 @@ public class EurekaHealthStatusBridgeModule extends AbstractModule {
 
         @Override
         public void onStarted() {
-            eurekaClient.get().registerHealthCheck(
-                    new HealthAggregatorEurekaHealthCheckHandler(healthCheckAggregator.get(), matcher));
+            eurekaClient.get().registerHealthCheck(createHealthCheckHandler());
+        }
+
+        private HealthCheckHandler createHealthCheckHandler() {
+            if (configProxyFactory != null) {
+                EurekaHealthStatusBridgeConfiguration config = configProxyFactory.newProxy(EurekaHealthStatusBridgeConfiguration.class);
+                if (config.useLastKnownStatus()) {
+                    return new HealthAggregatorEurekaHealthCheckHandler(healthCheckAggregator.get(), matcher,
+                            config.getMaxWaitInMillis(), TimeUnit.MILLISECONDS, registry);
+                }
+            }
+            return new HealthAggregatorEurekaHealthCheckHandler(healthCheckAggregator.get(), matcher);
         }
 
         @Override
@@ -1,10 +1,20 @@
 package com.netflix.runtime.health.eureka;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.netflix.appinfo.HealthCheckHandler;
 import com.netflix.appinfo.InstanceInfo.InstanceStatus;
 import com.netflix.runtime.health.api.HealthCheckAggregator;
 import com.netflix.runtime.health.api.HealthCheckStatus;
 import com.netflix.runtime.health.api.IndicatorMatcher;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
 
 /**
  * A Eureka HealthCheckHandler instance which consults a HealthAggregator for
@@ -24,27 +34,112 @@ import com.netflix.runtime.health.api.IndicatorMatcher;
                     new HealthAggregatorEurekaHealthCheckHandler(healthCheckAggregator, matcher));
  * }
  * </pre>
+ * 
+ * By default getStatus() blocks Eureka's calling thread until the HealthAggregator completes. When created 
+ * with a maximum wait time, the handler instead starts a check asynchronously (unless one is already in flight)
+ * and waits at most that long for it. If the check doesn't complete in time, the last known status is returned
+ * and the age of that status is recorded in the "runtime.health.eureka.statusAge" timer. Until a first check 
+ * completes, Eureka's current status is left unchanged.
  */
 public class HealthAggregatorEurekaHealthCheckHandler implements HealthCheckHandler {
 
+    private static final Logger LOG = LoggerFactory.getLogger(HealthAggregatorEurekaHealthCheckHandler.class);
     private final HealthCheckAggregator healthCheckAggregator;
     private final IndicatorMatcher matcher;
+    private final long maxWaitTime;
+    private final TimeUnit units;
+    private final Timer statusAge;
+    private final AtomicReference<CompletableFuture<HealthCheckStatus>> inFlight;
+    private volatile LastKnownStatus lastKnownStatus;
     
     public HealthAggregatorEurekaHealthCheckHandler(HealthCheckAggregator healthCheckAggregator, IndicatorMatcher matcher) {
+        this(healthCheckAggregator, matcher, -1, null, null);
+    }
+
+    /**
+     * @param maxWaitTime maximum time getStatus() waits for a check before falling back to the last known status.
+     *          0 always returns the last known status immediately.
+     * @param registry optional registry in which the age of returned statuses is recorded
+     */
+    public HealthAggregatorEurekaHealthCheckHandler(HealthCheckAggregator healthCheckAggregator, IndicatorMatcher matcher,
+            long maxWaitTime, TimeUnit units, Registry registry) {
         this.healthCheckAggregator = healthCheckAggregator;
         this.matcher = matcher;
+        this.maxWaitTime = maxWaitTime;
+        this.units = units;
+        this.statusAge = registry != null ? registry.timer("runtime.health.eureka.statusAge") : null;
+        this.inFlight = new AtomicReference<>();
     }
 
     @Override
     public InstanceStatus getStatus(InstanceStatus currentStatus) {
+        if (units == null) {
+            try {
+                return getInstanceStatusForHealth(check().get());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+        
+        CompletableFuture<HealthCheckStatus> refresh = refresh();
         try {
-            if (matcher != null) {
-                return getInstanceStatusForHealth(healthCheckAggregator.check(matcher).get());
-            } else {
-                return getInstanceStatusForHealth(healthCheckAggregator.check().get());
+            HealthCheckStatus health = refresh.getNow(null);
+            if (health == null && maxWaitTime > 0) {
+                health = refresh.get(maxWaitTime, units);
             }
+            if (health != null) {
+                recordAge(0);
+                return getInstanceStatusForHealth(health);
+            }
+        } catch (TimeoutException e) {
+            LOG.debug("Timed out waiting for health status, using last known status");
         } catch (Exception e) {
-            throw new RuntimeException(e);
+            LOG.warn("Failed to determine health status, using last known status", e);
+        }
+        
+        LastKnownStatus last = this.lastKnownStatus;
+        if (last == null) {
+            return currentStatus;
+        }
+        recordAge(System.nanoTime() - last.time);
+        return last.status;
+    }
+
+    /**
+     * Start a check unless one is already in flight, updating the last known status once it completes.
+     */
+    private CompletableFuture<HealthCheckStatus> refresh() {
+        while (true) {
+            CompletableFuture<HealthCheckStatus> current = inFlight.get();
+            if (current != null && !current.isDone()) {
+                return current;
+            }
+            CompletableFuture<HealthCheckStatus> next = new CompletableFuture<>();
+            if (inFlight.compareAndSet(current, next)) {
+                check().whenComplete((health, error) -> {
+                    if (health != null) {
+                        lastKnownStatus = new LastKnownStatus(getInstanceStatusForHealth(health), System.nanoTime());
+                        next.complete(health);
+                    } else {
+                        next.completeExceptionally(error);
+                    }
+                });
+                return next;
+            }
+        }
+    }
+
+    private CompletableFuture<HealthCheckStatus> check() {
+        if (matcher != null) {
+            return healthCheckAggregator.check(matcher);
+        } else {
+            return healthCheckAggregator.check();
+        }
+    }
+
+    private void recordAge(long nanos) {
+        if (statusAge != null) {
+            statusAge.record(nanos, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -55,4 +150,14 @@ public class HealthAggregatorEurekaHealthCheckHandler implements HealthCheckHand
             return InstanceStatus.DOWN;
         }
     }
+    
+    private static class LastKnownStatus {
+        private final InstanceStatus status;
+        private final long time;
+
+        LastKnownStatus(InstanceStatus status, long time) {
+            this.status = status;
+            this.time = time;
+        }
+    }
 }
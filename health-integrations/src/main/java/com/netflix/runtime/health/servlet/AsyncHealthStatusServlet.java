@@ -0,0 +1,180 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.servlet;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.runtime.health.api.HealthCheckAggregator;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.IndicatorMatcher;
+import com.netflix.runtime.health.core.HealthCheckGroup;
+import com.netflix.runtime.health.status.ArchaiusHealthStatusFilterModule;
+
+/**
+ * Servlet 3.0 variant of {@link HealthStatusServlet} which does not hold a container thread while the 
+ * {@link HealthCheckAggregator} runs. The request is put into asynchronous mode and the response is written 
+ * once the aggregator completes. If it doesn't complete within the async timeout (init parameter 
+ * {@value #ASYNC_TIMEOUT_PARAM}, default {@value #DEFAULT_ASYNC_TIMEOUT_IN_MILLIS}ms) a 500 is returned.
+ * 
+ * The servlet (and any filter in front of it, such as GuiceFilter) must be registered with async support enabled.
+ * Requests for which async is not supported are served synchronously.
+ * 
+ * Like {@link HealthStatusServlet}, requests whose path info names a bound {@link HealthCheckGroup} report the 
+ * status of that group.
+ */
+@Singleton
+public final class AsyncHealthStatusServlet extends HttpServlet {
+
+    public static final String ASYNC_TIMEOUT_PARAM = "asyncTimeoutInMillis";
+    public static final long DEFAULT_ASYNC_TIMEOUT_IN_MILLIS = 2000;
+
+    private static final long serialVersionUID = 2875232478917439815L;
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncHealthStatusServlet.class);
+    private static final String TIMEOUT_CONTENT = "Timed out waiting for health status";
+
+    @Inject
+    private HealthCheckAggregator healthCheckAggregator;
+
+    /***
+     * See {@link ArchaiusHealthStatusFilterModule} for default implementation.
+     */
+    @com.google.inject.Inject(optional=true)
+    private IndicatorMatcher matcher;
+
+    @com.google.inject.Inject(optional=true)
+    private Set<HealthCheckGroup> groups;
+
+    private transient volatile HealthStatusTargets targets;
+
+    private long asyncTimeout = DEFAULT_ASYNC_TIMEOUT_IN_MILLIS;
+
+    @Override
+    public void init() throws ServletException {
+        String timeout = getInitParameter(ASYNC_TIMEOUT_PARAM);
+        if (timeout != null) {
+            asyncTimeout = Long.parseLong(timeout.trim());
+        }
+    }
+
+    @Override
+    protected void doGet(final HttpServletRequest req, final HttpServletResponse resp) throws IOException, ServletException {
+        final HealthStatusTargets.Target target = targets().select(req);
+        if (target == null) {
+            resp.sendError(404);
+            return;
+        }
+        if (!req.isAsyncSupported()) {
+            doGetSynchronously(target, req, resp);
+            return;
+        }
+
+        final AsyncContext context = req.startAsync();
+        final AtomicBoolean responded = new AtomicBoolean();
+        context.setTimeout(asyncTimeout);
+        context.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (responded.compareAndSet(false, true)) {
+                    writeTimeout((HttpServletResponse) event.getAsyncContext().getResponse());
+                    event.getAsyncContext().complete();
+                }
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                responded.set(true);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        check(target).whenComplete((health, error) -> {
+            if (!responded.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                HttpServletResponse response = (HttpServletResponse) context.getResponse();
+                if (health != null) {
+                    target.writer.write(health, req, response);
+                } else {
+                    LOG.warn("Failed to determine health status", error);
+                    response.sendError(500);
+                }
+            } catch (Exception e) {
+                LOG.warn("Failed to write health status", e);
+            } finally {
+                context.complete();
+            }
+        });
+    }
+
+    private void doGetSynchronously(HealthStatusTargets.Target target, HttpServletRequest req, HttpServletResponse resp) 
+            throws IOException, ServletException {
+        HealthCheckStatus health;
+        try {
+            health = check(target).get(asyncTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            writeTimeout(resp);
+            return;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+        target.writer.write(health, req, resp);
+    }
+
+    private CompletableFuture<HealthCheckStatus> check(HealthStatusTargets.Target target) {
+        return matcher != null ? target.aggregator.check(matcher) : target.aggregator.check();
+    }
+
+    private HealthStatusTargets targets() {
+        HealthStatusTargets current = targets;
+        if (current == null) {
+            targets = current = new HealthStatusTargets(healthCheckAggregator, groups);
+        }
+        return current;
+    }
+
+    private static void writeTimeout(HttpServletResponse resp) throws IOException {
+        resp.setStatus(500);
+        resp.setContentLength(TIMEOUT_CONTENT.length());
+        resp.setContentType("text/plain");
+        resp.getWriter().print(TIMEOUT_CONTENT);
+    }
+}
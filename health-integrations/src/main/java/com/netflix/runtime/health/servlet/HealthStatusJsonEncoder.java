@@ -0,0 +1,174 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.servlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+
+/**
+ * Encodes a {@link HealthCheckStatus} as UTF-8 JSON, either as a summary
+ * 
+ * <pre>
+ * {"healthy":true,"version":3}
+ * </pre>
+ * 
+ * or with the details of every indicator
+ * 
+ * <pre>
+ * {"healthy":true,"version":3,"indicators":[{"healthy":true,"outcome":"HEALTHY","details":{"className":"..."}}],"suppressedIndicators":[]}
+ * </pre>
+ * 
+ * Detail values are written as JSON strings, numbers, booleans, objects (for maps) or arrays (for collections and
+ * arrays). Any other value is written as the string returned by its toString().
+ */
+final class HealthStatusJsonEncoder {
+
+    private HealthStatusJsonEncoder() {
+    }
+
+    static byte[] encode(HealthCheckStatus status, boolean summary) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(summary ? 64 : 512);
+        try (Writer out = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+            out.write("{\"healthy\":");
+            out.write(Boolean.toString(status.isHealthy()));
+            out.write(",\"version\":");
+            out.write(Long.toString(status.getVersion()));
+            if (!summary) {
+                out.write(",\"indicators\":");
+                writeHealths(out, status.getHealthResults());
+                out.write(",\"suppressedIndicators\":");
+                writeHealths(out, status.getSuppressedHealthResults());
+            }
+            out.write('}');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeHealths(Writer out, List<Health> healths) throws IOException {
+        out.write('[');
+        for (int i = 0; i < healths.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            Health health = healths.get(i);
+            out.write("{\"healthy\":");
+            out.write(Boolean.toString(health.isHealthy()));
+            out.write(",\"outcome\":\"");
+            out.write(health.getOutcome().name());
+            out.write("\",\"details\":");
+            writeValue(out, health.getDetails());
+            out.write('}');
+        }
+        out.write(']');
+    }
+
+    private static void writeValue(Writer out, Object value) throws IOException {
+        if (value == null) {
+            out.write("null");
+        } else if (value instanceof Boolean) {
+            out.write(value.toString());
+        } else if (value instanceof Number && isFinite((Number) value)) {
+            out.write(value.toString());
+        } else if (value instanceof Map) {
+            out.write('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.write(',');
+                }
+                first = false;
+                writeString(out, String.valueOf(entry.getKey()));
+                out.write(':');
+                writeValue(out, entry.getValue());
+            }
+            out.write('}');
+        } else if (value instanceof Collection) {
+            out.write('[');
+            boolean first = true;
+            for (Object element : (Collection<?>) value) {
+                if (!first) {
+                    out.write(',');
+                }
+                first = false;
+                writeValue(out, element);
+            }
+            out.write(']');
+        } else if (value.getClass().isArray()) {
+            out.write('[');
+            for (int i = 0; i < Array.getLength(value); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeValue(out, Array.get(value, i));
+            }
+            out.write(']');
+        } else {
+            writeString(out, value.toString());
+        }
+    }
+
+    private static boolean isFinite(Number number) {
+        if (number instanceof Double || number instanceof Float) {
+            double d = number.doubleValue();
+            return !Double.isNaN(d) && !Double.isInfinite(d);
+        }
+        return true;
+    }
+
+    private static void writeString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                out.write("\\\"");
+                break;
+            case '\\':
+                out.write("\\\\");
+                break;
+            case '\n':
+                out.write("\\n");
+                break;
+            case '\r':
+                out.write("\\r");
+                break;
+            case '\t':
+                out.write("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    out.write(String.format("\\u%04x", (int) c));
+                } else {
+                    out.write(c);
+                }
+            }
+        }
+        out.write('"');
+    }
+}
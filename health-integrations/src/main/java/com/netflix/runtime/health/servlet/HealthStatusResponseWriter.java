@@ -0,0 +1,127 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.servlet;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.netflix.runtime.health.api.HealthCheckStatus;
+
+/**
+ * Writes a {@link HealthCheckStatus} as the JSON response of the health status servlets (see 
+ * {@link HealthStatusJsonEncoder}). Healthy statuses are reported with a 200 and unhealthy ones with a 500.
+ * 
+ * Requests with the query parameter {@value #SUMMARY_PARAM}=true receive only the overall health and version,
+ * otherwise the details of every indicator are included. The encoded response is cached per status version, 
+ * so repeated requests for an unchanged status are served without encoding it again.
+ * 
+ * Responses carry an ETag derived from the encoded content. A healthy status whose ETag matches the request's 
+ * If-None-Match header is answered with a 304 and no body. Unhealthy statuses are always sent in full, so that 
+ * clients which only look at the status code never mistake an unchanged unhealthy status for a healthy one.
+ */
+final class HealthStatusResponseWriter {
+
+    static final String SUMMARY_PARAM = "summary";
+    static final String CONTENT_TYPE = "application/json";
+
+    private final AtomicReference<Encoded> full = new AtomicReference<>();
+    private final AtomicReference<Encoded> summary = new AtomicReference<>();
+
+    void write(HealthCheckStatus health, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        boolean summaryOnly = Boolean.parseBoolean(req.getParameter(SUMMARY_PARAM));
+        Encoded encoded = encode(health, summaryOnly ? summary : full, summaryOnly);
+        resp.setHeader("ETag", encoded.etag);
+        resp.setHeader("Cache-Control", "no-cache");
+        if(health.isHealthy()) {
+            if (matches(req.getHeader("If-None-Match"), encoded.etag)) {
+                resp.setStatus(304);
+                return;
+            }
+            resp.setStatus(200);
+        }
+        else {
+            resp.setStatus(500);
+        }
+        resp.setContentLength(encoded.content.length);
+        resp.setContentType(CONTENT_TYPE);
+        resp.setCharacterEncoding("UTF-8");
+        resp.getOutputStream().write(encoded.content);
+    }
+
+    /**
+     * Statuses with version 0 weren't versioned by their {@link com.netflix.runtime.health.api.HealthCheckAggregator}
+     * and are always encoded.
+     */
+    private static Encoded encode(HealthCheckStatus health, AtomicReference<Encoded> cache, boolean summaryOnly) {
+        long version = health.getVersion();
+        if (version == 0) {
+            return new Encoded(version, HealthStatusJsonEncoder.encode(health, summaryOnly));
+        }
+        Encoded cached = cache.get();
+        if (cached != null && cached.version == version) {
+            return cached;
+        }
+        Encoded encoded = new Encoded(version, HealthStatusJsonEncoder.encode(health, summaryOnly));
+        cache.set(encoded);
+        return encoded;
+    }
+
+    /**
+     * @return true if the If-None-Match header lists the etag (ignoring weak validator prefixes) or is "*" 
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Encoded {
+        private final long version;
+        private final byte[] content;
+        private final String etag;
+
+        Encoded(long version, byte[] content) {
+            this.version = version;
+            this.content = content;
+            this.etag = etag(content);
+        }
+
+        /**
+         * 64 bit FNV-1a hash of the content. The content includes the overall health, so it is part of the ETag.
+         */
+        private static String etag(byte[] content) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : content) {
+                hash ^= b & 0xff;
+                hash *= 0x100000001b3L;
+            }
+            return "\"" + Long.toHexString(hash) + "\"";
+        }
+    }
+}
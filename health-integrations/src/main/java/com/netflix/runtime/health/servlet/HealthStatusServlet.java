@@ -16,6 +16,7 @@
 package com.netflix.runtime.health.servlet;
 
 import java.io.IOException;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -27,8 +28,18 @@ import javax.servlet.http.HttpServletResponse;
 import com.netflix.runtime.health.api.HealthCheckAggregator;
 import com.netflix.runtime.health.api.HealthCheckStatus;
 import com.netflix.runtime.health.api.IndicatorMatcher;
+import com.netflix.runtime.health.core.HealthCheckGroup;
 import com.netflix.runtime.health.status.ArchaiusHealthStatusFilterModule;
 
+/**
+ * Servlet reporting the {@link HealthCheckStatus} of the application, blocking the request thread until
+ * the {@link HealthCheckAggregator} completes. See {@link AsyncHealthStatusServlet} for a non-blocking 
+ * alternative on Servlet 3.0 containers.
+ * 
+ * When mapped with a wildcard (for example "/health/*"), requests whose path info names a bound 
+ * {@link HealthCheckGroup} (for example "/health/readiness") report the status of that group. Requests naming 
+ * an unknown group are answered with a 404.
+ */
 @Singleton
 public final class HealthStatusServlet extends HttpServlet {
     
@@ -41,30 +52,39 @@ public final class HealthStatusServlet extends HttpServlet {
      */
     @com.google.inject.Inject(optional=true)
     private IndicatorMatcher matcher;
+
+    @com.google.inject.Inject(optional=true)
+    private Set<HealthCheckGroup> groups;
+
+    private transient volatile HealthStatusTargets targets;
     
     @Override
     protected void doGet(final HttpServletRequest req, final HttpServletResponse resp) throws IOException, ServletException {
+        HealthStatusTargets.Target target = targets().select(req);
+        if (target == null) {
+            resp.sendError(404);
+            return;
+        }
         HealthCheckStatus health;
         try {
             if(matcher != null ) {
-                health = this.healthCheckAggregator.check(matcher).get();
+                health = target.aggregator.check(matcher).get();
             } else {
-                health = this.healthCheckAggregator.check().get();
+                health = target.aggregator.check().get();
             }
         } catch (Exception e) {
             throw new ServletException(e);
         }
         
-        if(health.isHealthy()) {
-            resp.setStatus(200);
-        }
-        else {
-            resp.setStatus(500);
+        target.writer.write(health, req, resp);
+    }
+
+    private HealthStatusTargets targets() {
+        HealthStatusTargets current = targets;
+        if (current == null) {
+            targets = current = new HealthStatusTargets(healthCheckAggregator, groups);
         }
-        String content = health.toString();
-        resp.setContentLength(content.length());
-        resp.setContentType("text/plain");
-        resp.getWriter().print(content);
+        return current;
     }
 
 }
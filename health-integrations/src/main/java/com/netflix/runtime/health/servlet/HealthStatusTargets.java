@@ -0,0 +1,70 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.servlet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+
+import com.netflix.runtime.health.api.HealthCheckAggregator;
+import com.netflix.runtime.health.core.HealthCheckGroup;
+
+/**
+ * Selects what the health status servlets report for a request: the {@link HealthCheckGroup} named by the path info
+ * of the request (for example "/readiness" when the servlet is mapped to "/health/*"), or the application's 
+ * {@link HealthCheckAggregator} for requests without path info. Each has its own {@link HealthStatusResponseWriter}, 
+ * as encoded responses are cached per status version.
+ */
+final class HealthStatusTargets {
+
+    static final class Target {
+        final HealthCheckAggregator aggregator;
+        final HealthStatusResponseWriter writer = new HealthStatusResponseWriter();
+
+        Target(HealthCheckAggregator aggregator) {
+            this.aggregator = aggregator;
+        }
+    }
+
+    private final Target application;
+    private final Map<String, Target> groups;
+
+    /**
+     * @param groups groups served by name, or null if there are none
+     */
+    HealthStatusTargets(HealthCheckAggregator aggregator, Set<HealthCheckGroup> groups) {
+        this.application = new Target(aggregator);
+        this.groups = new HashMap<>();
+        if (groups != null) {
+            for (HealthCheckGroup group : groups) {
+                this.groups.put(group.getName(), new Target(group));
+            }
+        }
+    }
+
+    /**
+     * @return the target of the request, or null if its path info names no group
+     */
+    Target select(HttpServletRequest req) {
+        String path = req.getPathInfo();
+        if (path == null || path.equals("/")) {
+            return application;
+        }
+        return groups.get(path.startsWith("/") ? path.substring(1) : path);
+    }
+}
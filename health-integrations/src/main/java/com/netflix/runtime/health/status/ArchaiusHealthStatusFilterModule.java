@@ -20,6 +20,9 @@ import javax.inject.Singleton;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.netflix.archaius.ConfigProxyFactory;
+import com.netflix.archaius.api.Property;
+import com.netflix.archaius.api.PropertyFactory;
+import com.netflix.archaius.property.DefaultPropertyListener;
 import com.netflix.runtime.health.api.HealthIndicator;
 import com.netflix.runtime.health.api.IndicatorMatcher;
 import com.netflix.runtime.health.api.IndicatorMatchers;
@@ -34,6 +37,9 @@ import com.netflix.runtime.health.servlet.HealthStatusServlet;
  */
 public class ArchaiusHealthStatusFilterModule extends AbstractModule {
 
+    private static final String INCLUDE_PROPERTY = "health.status.indicators.include";
+    private static final String EXCLUDE_PROPERTY = "health.status.indicators.exclude";
+
     @Override
     protected void configure() {
     }
@@ -46,24 +52,45 @@ public class ArchaiusHealthStatusFilterModule extends AbstractModule {
     
     @Provides
     @Singleton
-    public IndicatorMatcher IndicatorMatcher(HealthStatusInclusionConfiguration config) {
-        return new ArchaiusDrivenStatusFilter(config);
+    public IndicatorMatcher IndicatorMatcher(HealthStatusInclusionConfiguration config, PropertyFactory propertyFactory) {
+        return new ArchaiusDrivenStatusFilter(config, propertyFactory);
     }
 
+    /***
+     * Delegates to an {@link IndicatorMatcher} compiled from the current configuration, which is only rebuilt 
+     * when the include or exclude property changes.  
+     */
     private static class ArchaiusDrivenStatusFilter implements IndicatorMatcher {
 
         private final HealthStatusInclusionConfiguration config;
+        private final Property<String> includeProperty;
+        private final Property<String> excludeProperty;
+        private volatile IndicatorMatcher matcher;
 
-        public ArchaiusDrivenStatusFilter(HealthStatusInclusionConfiguration config) {
+        public ArchaiusDrivenStatusFilter(HealthStatusInclusionConfiguration config, PropertyFactory propertyFactory) {
             this.config = config;
+            this.includeProperty = propertyFactory.getProperty(INCLUDE_PROPERTY).asString(null);
+            this.excludeProperty = propertyFactory.getProperty(EXCLUDE_PROPERTY).asString(null);
+            DefaultPropertyListener<String> listener = new DefaultPropertyListener<String>() {
+                @Override
+                public void onChange(String value) {
+                    rebuild();
+                }
+            };
+            this.includeProperty.addListener(listener);
+            this.excludeProperty.addListener(listener);
+            rebuild();
+        }
+
+        private void rebuild() {
+            this.matcher = IndicatorMatchers
+                    .includes(config.includedIndicators())
+                    .excludes(config.excludedIndicators()).build();
         }
 
         @Override
         public boolean matches(HealthIndicator indicator) {
-            return IndicatorMatchers
-                    .includes(config.includedIndicators())
-                    .excludes(config.excludedIndicators()).build()
-                    .matches(indicator);
+            return matcher.matches(indicator);
         }
     }
     
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.eureka;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckAggregator;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HealthAggregatorEurekaHealthCheckHandlerTest {
+
+    @Mock HealthCheckAggregator healthCheckAggregator;
+    Registry registry;
+    
+    @Before
+    public void init() {
+        registry = new DefaultRegistry();
+    }
+    
+    @Test
+    public void testBlockingModeReturnsAggregatorStatus() {
+        Mockito.when(healthCheckAggregator.check()).thenReturn(completed(false));
+        HealthAggregatorEurekaHealthCheckHandler handler = new HealthAggregatorEurekaHealthCheckHandler(healthCheckAggregator, null);
+        assertEquals(InstanceStatus.DOWN, handler.getStatus(InstanceStatus.UP));
+    }
+
+    @Test
+    public void testFreshStatusReturnedWithinMaxWait() {
+        Mockito.when(healthCheckAggregator.check()).thenReturn(completed(true));
+        HealthAggregatorEurekaHealthCheckHandler handler = lastKnownStatusHandler(100);
+        assertEquals(InstanceStatus.UP, handler.getStatus(InstanceStatus.STARTING));
+        assertEquals(1, registry.timer("runtime.health.eureka.statusAge").count());
+        assertEquals(0, registry.timer("runtime.health.eureka.statusAge").totalTime());
+    }
+
+    @Test(timeout=1000)
+    public void testCurrentStatusKeptUntilFirstCheckCompletes() {
+        Mockito.when(healthCheckAggregator.check()).thenReturn(new CompletableFuture<>());
+        HealthAggregatorEurekaHealthCheckHandler handler = lastKnownStatusHandler(10);
+        assertEquals(InstanceStatus.STARTING, handler.getStatus(InstanceStatus.STARTING));
+        assertEquals(0, registry.timer("runtime.health.eureka.statusAge").count());
+    }
+
+    @Test(timeout=1000)
+    public void testLastKnownStatusReturnedWhenCheckIsSlow() throws Exception {
+        CompletableFuture<HealthCheckStatus> slow = new CompletableFuture<>();
+        Mockito.when(healthCheckAggregator.check()).thenReturn(completed(false), slow);
+        HealthAggregatorEurekaHealthCheckHandler handler = lastKnownStatusHandler(10);
+        assertEquals(InstanceStatus.DOWN, handler.getStatus(InstanceStatus.STARTING));
+        Thread.sleep(20);
+        
+        assertEquals(InstanceStatus.DOWN, handler.getStatus(InstanceStatus.DOWN));
+        assertEquals(2, registry.timer("runtime.health.eureka.statusAge").count());
+        assertEquals(true, registry.timer("runtime.health.eureka.statusAge").totalTime() >= TimeUnit.MILLISECONDS.toNanos(20));
+        
+        slow.complete(new HealthCheckStatus(true, Arrays.asList(Health.healthy().build())));
+        assertEquals(InstanceStatus.UP, handler.getStatus(InstanceStatus.DOWN));
+    }
+
+    @Test(timeout=1000)
+    public void testOnlyOneCheckInFlight() {
+        Mockito.when(healthCheckAggregator.check()).thenReturn(new CompletableFuture<>());
+        HealthAggregatorEurekaHealthCheckHandler handler = lastKnownStatusHandler(0);
+        handler.getStatus(InstanceStatus.STARTING);
+        handler.getStatus(InstanceStatus.STARTING);
+        handler.getStatus(InstanceStatus.STARTING);
+        Mockito.verify(healthCheckAggregator, Mockito.times(1)).check();
+    }
+
+    private HealthAggregatorEurekaHealthCheckHandler lastKnownStatusHandler(long maxWaitInMillis) {
+        return new HealthAggregatorEurekaHealthCheckHandler(healthCheckAggregator, null, maxWaitInMillis, TimeUnit.MILLISECONDS, registry);
+    }
+
+    private CompletableFuture<HealthCheckStatus> completed(boolean healthy) {
+        return CompletableFuture.completedFuture(new HealthCheckStatus(healthy,
+                Arrays.asList(healthy ? Health.healthy().build() : Health.unhealthy().build())));
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.servlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckAggregator;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncHealthStatusServletTest {
+
+    @Mock HealthCheckAggregator healthCheckAggregator;
+    @Mock HttpServletRequest request;
+    @Mock HttpServletResponse response;
+    @Mock AsyncContext asyncContext;
+    StringWriter content;
+    ByteArrayOutputStream body;
+    AsyncHealthStatusServlet servlet;
+
+    @Before
+    public void init() throws Exception {
+        content = new StringWriter();
+        Mockito.when(response.getWriter()).thenReturn(new PrintWriter(content, true));
+        body = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+        });
+        Mockito.when(request.isAsyncSupported()).thenReturn(true);
+        Mockito.when(request.startAsync()).thenReturn(asyncContext);
+        Mockito.when(asyncContext.getResponse()).thenReturn(response);
+        servlet = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(HealthCheckAggregator.class).toInstance(healthCheckAggregator);
+            }
+        }).getInstance(AsyncHealthStatusServlet.class);
+    }
+
+    @Test
+    public void testResponseWrittenOnCompletion() throws Exception {
+        CompletableFuture<HealthCheckStatus> future = new CompletableFuture<>();
+        Mockito.when(healthCheckAggregator.check()).thenReturn(future);
+
+        servlet.doGet(request, response);
+        Mockito.verify(asyncContext, Mockito.never()).complete();
+        Mockito.verify(response, Mockito.never()).setStatus(Mockito.anyInt());
+
+        future.complete(HealthCheckStatus.create(true, Collections.singletonList(Health.healthy().build())));
+        Mockito.verify(response).setStatus(200);
+        Mockito.verify(asyncContext).complete();
+        assertTrue(body().startsWith("{\"healthy\":true"));
+    }
+
+    @Test
+    public void testUnhealthyResponse() throws Exception {
+        Mockito.when(healthCheckAggregator.check()).thenReturn(CompletableFuture.completedFuture(
+                HealthCheckStatus.create(false, Collections.singletonList(Health.unhealthy().build()))));
+
+        servlet.doGet(request, response);
+        Mockito.verify(response).setStatus(500);
+        Mockito.verify(asyncContext).complete();
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        CompletableFuture<HealthCheckStatus> future = new CompletableFuture<>();
+        Mockito.when(healthCheckAggregator.check()).thenReturn(future);
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+
+        servlet.doGet(request, response);
+        Mockito.verify(asyncContext).setTimeout(AsyncHealthStatusServlet.DEFAULT_ASYNC_TIMEOUT_IN_MILLIS);
+        Mockito.verify(asyncContext).addListener(listener.capture());
+
+        listener.getValue().onTimeout(new AsyncEvent(asyncContext, request, response));
+        Mockito.verify(response).setStatus(500);
+        Mockito.verify(asyncContext).complete();
+
+        // a late result must not be written to the already completed response
+        future.complete(HealthCheckStatus.create(true, Collections.emptyList()));
+        Mockito.verify(response, Mockito.times(1)).setStatus(Mockito.anyInt());
+        Mockito.verify(asyncContext, Mockito.times(1)).complete();
+    }
+
+    @Test
+    public void testSynchronousWhenAsyncNotSupported() throws Exception {
+        Mockito.when(request.isAsyncSupported()).thenReturn(false);
+        Mockito.when(healthCheckAggregator.check()).thenReturn(CompletableFuture.completedFuture(
+                HealthCheckStatus.create(true, Collections.emptyList())));
+
+        servlet.doGet(request, response);
+        Mockito.verify(request, Mockito.never()).startAsync();
+        Mockito.verify(response).setStatus(200);
+        assertEquals("{\"healthy\":true,\"version\":0,\"indicators\":[],\"suppressedIndicators\":[]}", body());
+    }
+
+    private String body() {
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.servlet;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+
+public class HealthStatusJsonEncoderTest {
+
+    @Test
+    public void testDetailValues() {
+        Health health = Health.healthy()
+                .withDetail("string", "quote \" backslash \\ newline \n control \u0001")
+                .withDetail("int", 42)
+                .withDetail("double", 0.5)
+                .withDetail("nan", Double.NaN)
+                .withDetail("bool", true)
+                .withDetail("list", Arrays.asList("a", 1))
+                .withDetail("array", new int[] {1, 2})
+                .withDetail("map", Collections.singletonMap("k", "v"))
+                .withDetail("other", new StringBuilder("sb"))
+                .build();
+        String json = new String(HealthStatusJsonEncoder.encode(HealthCheckStatus.create(true, Arrays.asList(health)), false),
+                StandardCharsets.UTF_8);
+        assertEquals("{\"healthy\":true,\"version\":0,\"indicators\":[{\"healthy\":true,\"outcome\":\"HEALTHY\",\"details\":{"
+                + "\"string\":\"quote \\\" backslash \\\\ newline \\n control \\u0001\","
+                + "\"int\":42,\"double\":0.5,\"nan\":\"NaN\",\"bool\":true,\"list\":[\"a\",1],\"array\":[1,2],"
+                + "\"map\":{\"k\":\"v\"},\"other\":\"sb\"}}],\"suppressedIndicators\":[]}", json);
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.servlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.multibindings.Multibinder;
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthCheckAggregator;
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.IndicatorMatchers;
+import com.netflix.runtime.health.core.HealthCheckGroup;
+import com.netflix.runtime.health.core.SimpleHealthCheckAggregator;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HealthStatusServletTest {
+
+    @Mock HealthCheckAggregator healthCheckAggregator;
+    @Mock HttpServletRequest request;
+    @Mock HttpServletResponse response;
+    ByteArrayOutputStream body;
+    HealthStatusServlet servlet;
+
+    @Before
+    public void init() throws Exception {
+        body = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+        });
+        servlet = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(HealthCheckAggregator.class).toInstance(healthCheckAggregator);
+            }
+        }).getInstance(HealthStatusServlet.class);
+    }
+
+    @Test
+    public void testFullDetails() throws Exception {
+        respondWith(HealthCheckStatus.create(false, 
+                Arrays.asList(Health.healthy().withDetail(Health.NAME_KEY, "a").build()),
+                Arrays.asList(Health.unhealthy(new IllegalStateException("down")).withDetail(Health.NAME_KEY, "b").build()), 
+                7));
+        
+        servlet.doGet(request, response);
+        Mockito.verify(response).setStatus(500);
+        Mockito.verify(response).setContentType("application/json");
+        assertEquals("{\"healthy\":false,\"version\":7,"
+                + "\"indicators\":[{\"healthy\":true,\"outcome\":\"HEALTHY\",\"details\":{\"className\":\"a\"}}],"
+                + "\"suppressedIndicators\":[{\"healthy\":false,\"outcome\":\"UNHEALTHY\",\"details\":{\"error\":\"java.lang.IllegalStateException: down\",\"className\":\"b\"}}]}", 
+                body());
+    }
+
+    @Test
+    public void testSummary() throws Exception {
+        Mockito.when(request.getParameter("summary")).thenReturn("true");
+        respondWith(HealthCheckStatus.create(true, Arrays.asList(Health.healthy().withDetail("foo", "bar").build()), 
+                Collections.emptyList(), 3));
+        
+        servlet.doGet(request, response);
+        Mockito.verify(response).setStatus(200);
+        assertEquals("{\"healthy\":true,\"version\":3}", body());
+    }
+
+    @Test
+    public void testContentLengthCountsBytes() throws Exception {
+        respondWith(HealthCheckStatus.create(true, Arrays.asList(Health.healthy().withDetail("name", "\u00e9\u20ac").build())));
+        
+        servlet.doGet(request, response);
+        Mockito.verify(response).setContentLength(body.size());
+        assertEquals(body().length() + 3, body.size());
+    }
+
+    @Test
+    public void testEncodedContentCachedPerVersion() throws Exception {
+        respondWith(HealthCheckStatus.create(true, Arrays.asList(Health.healthy().withDetail("run", 1).build()),
+                Collections.emptyList(), 1));
+        servlet.doGet(request, response);
+        String first = body();
+        
+        // same version, so the cached encoding of the first status is served
+        body.reset();
+        respondWith(HealthCheckStatus.create(true, Arrays.asList(Health.healthy().withDetail("run", 2).build()),
+                Collections.emptyList(), 1));
+        servlet.doGet(request, response);
+        assertEquals(first, body());
+        
+        body.reset();
+        respondWith(HealthCheckStatus.create(true, Arrays.asList(Health.healthy().withDetail("run", 3).build()),
+                Collections.emptyList(), 2));
+        servlet.doGet(request, response);
+        assertEquals(first.replace("\"run\":1", "\"run\":3").replace("\"version\":1", "\"version\":2"), body());
+    }
+
+    @Test
+    public void testNotModified() throws Exception {
+        respondWith(HealthCheckStatus.create(true, Arrays.asList(Health.healthy().build()), Collections.emptyList(), 1));
+        servlet.doGet(request, response);
+        String etag = etag();
+        
+        Mockito.reset(response);
+        init();
+        Mockito.when(request.getHeader("If-None-Match")).thenReturn("\"other\", W/" + etag);
+        servlet.doGet(request, response);
+        Mockito.verify(response).setStatus(304);
+        Mockito.verify(response).setHeader("ETag", etag);
+        Mockito.verify(response, Mockito.never()).getOutputStream();
+    }
+
+    @Test
+    public void testChangedStatusNotMatched() throws Exception {
+        respondWith(HealthCheckStatus.create(true, Arrays.asList(Health.healthy().build()), Collections.emptyList(), 1));
+        servlet.doGet(request, response);
+        String etag = etag();
+        
+        Mockito.reset(response);
+        init();
+        Mockito.when(request.getHeader("If-None-Match")).thenReturn(etag);
+        respondWith(HealthCheckStatus.create(true, Arrays.asList(Health.healthy().withDetail("foo", "bar").build()), 
+                Collections.emptyList(), 2));
+        servlet.doGet(request, response);
+        Mockito.verify(response).setStatus(200);
+        assertNotEquals(etag, etag());
+    }
+
+    @Test
+    public void testUnhealthyNeverNotModified() throws Exception {
+        respondWith(HealthCheckStatus.create(false, Arrays.asList(Health.unhealthy().build()), Collections.emptyList(), 1));
+        servlet.doGet(request, response);
+        String etag = etag();
+        
+        Mockito.reset(response);
+        init();
+        Mockito.when(request.getHeader("If-None-Match")).thenReturn(etag);
+        servlet.doGet(request, response);
+        Mockito.verify(response).setStatus(500);
+        assertEquals(etag, etag());
+    }
+
+    @Test
+    public void testSummaryAndFullHaveDifferentETags() throws Exception {
+        respondWith(HealthCheckStatus.create(true, Arrays.asList(Health.healthy().build()), Collections.emptyList(), 1));
+        servlet.doGet(request, response);
+        String full = etag();
+        
+        Mockito.reset(response);
+        init();
+        Mockito.when(request.getParameter("summary")).thenReturn("true");
+        servlet.doGet(request, response);
+        assertNotEquals(full, etag());
+    }
+
+    @Test
+    public void testIfNoneMatchParsing() {
+        assertTrue(HealthStatusResponseWriter.matches("\"a\"", "\"a\""));
+        assertTrue(HealthStatusResponseWriter.matches("W/\"a\"", "\"a\""));
+        assertTrue(HealthStatusResponseWriter.matches("\"b\" , \"a\"", "\"a\""));
+        assertTrue(HealthStatusResponseWriter.matches("*", "\"a\""));
+        assertFalse(HealthStatusResponseWriter.matches("\"b\"", "\"a\""));
+        assertFalse(HealthStatusResponseWriter.matches(null, "\"a\""));
+    }
+
+    @Test
+    public void testGroupSelectedByPathInfo() throws Exception {
+        HealthIndicator database = callback -> callback.inform(Health.unhealthy().build());
+        SimpleHealthCheckAggregator aggregator = new SimpleHealthCheckAggregator(Arrays.asList(database), 1, TimeUnit.SECONDS);
+        HealthCheckGroup liveness = aggregator.group("liveness", IndicatorMatchers.excludes(database.getName()).build(), 
+                HealthCheckGroup.Rule.ALL_HEALTHY);
+        servlet = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(HealthCheckAggregator.class).toInstance(aggregator);
+                Multibinder.newSetBinder(binder(), HealthCheckGroup.class).addBinding().toInstance(liveness);
+            }
+        }).getInstance(HealthStatusServlet.class);
+        
+        Mockito.when(request.getPathInfo()).thenReturn("/liveness");
+        servlet.doGet(request, response);
+        Mockito.verify(response).setStatus(200);
+        
+        Mockito.when(request.getPathInfo()).thenReturn(null);
+        servlet.doGet(request, response);
+        Mockito.verify(response).setStatus(500);
+        
+        Mockito.when(request.getPathInfo()).thenReturn("/startup");
+        servlet.doGet(request, response);
+        Mockito.verify(response).sendError(404);
+        aggregator.close();
+    }
+
+    private String etag() {
+        ArgumentCaptor<String> etag = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(response).setHeader(Mockito.eq("ETag"), etag.capture());
+        return etag.getValue();
+    }
+
+    private void respondWith(HealthCheckStatus status) {
+        Mockito.when(healthCheckAggregator.check()).thenReturn(CompletableFuture.completedFuture(status));
+    }
+
+    private String body() {
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -110,4 +110,25 @@ public class ArchaiusHealthStatusFilterModuleTest {
         assertFalse(matcher.matches(new A()));
         assertTrue(matcher.matches(new B()));
     }
+    
+    @Test
+    public void testClearingPropertyRestoresDefault() {
+        config.setProperty("health.status.indicators.include", "A");
+        config.setProperty("health.status.indicators.exclude", "A");
+        assertFalse(matcher.matches(new A()));
+        assertFalse(matcher.matches(new B()));
+        
+        config.clearProperty("health.status.indicators.include");
+        config.clearProperty("health.status.indicators.exclude");
+        assertTrue(matcher.matches(new A()));
+        assertTrue(matcher.matches(new B()));
+    }
+    
+    @Test
+    public void testRules() {
+        config.setProperty("health.status.indicators.include", "glob:?,regex:[AB]");
+        config.setProperty("health.status.indicators.exclude", "regex:B");
+        assertTrue(matcher.matches(new A()));
+        assertFalse(matcher.matches(new B()));
+    }
 }
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+import com.netflix.runtime.health.core.caching.CachingHealthIndicator;
+
+/**
+ * Measures {@link CachingHealthIndicator}.check() when served from the cache and when every call
+ * finds the entry expired and goes to the delegate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CachingHealthIndicatorBenchmark {
+
+    private CachingHealthIndicator hit;
+    private CachingHealthIndicator miss;
+    private volatile Health last;
+    private final HealthIndicatorCallback callback = health -> last = health;
+
+    @Setup
+    public void setup() {
+        hit = CachingHealthIndicator.wrap(new Indicators.NamedIndicator(Indicators.name(0)), 1, TimeUnit.HOURS);
+        miss = CachingHealthIndicator.wrap(new Indicators.NamedIndicator(Indicators.name(1)), 0, TimeUnit.NANOSECONDS);
+        hit.check(callback);
+    }
+
+    @Benchmark
+    public Health cacheHit() {
+        hit.check(callback);
+        return last;
+    }
+
+    @Benchmark
+    public Health cacheMiss() {
+        miss.check(callback);
+        return last;
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Health concurrentCacheHit() {
+        hit.check(callback);
+        return last;
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.netflix.runtime.health.api.Health;
+
+/**
+ * Measures construction of {@link Health} instances through {@link Health.Builder}, including the
+ * {@link Health}.from(...) copy the aggregator performs for every indicator on every check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HealthBenchmark {
+
+    private final RuntimeException exception = new RuntimeException("Boom");
+    private Health healthy;
+    private Health withDetails;
+
+    @Setup
+    public void setup() {
+        healthy = Health.healthy().build();
+        withDetails = Health.healthy().withDetail("foo", "bar").withDetail("baz", "qux").build();
+    }
+
+    @Benchmark
+    public Health healthy() {
+        return Health.healthy().build();
+    }
+
+    @Benchmark
+    public Health healthyWithDetails() {
+        return Health.healthy().withDetail("foo", "bar").withDetail("baz", "qux").build();
+    }
+
+    @Benchmark
+    public Health unhealthyWithException() {
+        return Health.unhealthy(exception).build();
+    }
+
+    @Benchmark
+    public Health fromHealthy() {
+        return Health.from(healthy).withDetail(Health.NAME_KEY, "indicator").build();
+    }
+
+    @Benchmark
+    public Health fromWithDetails() {
+        return Health.from(withDetails).withDetail(Health.NAME_KEY, "indicator").build();
+    }
+}
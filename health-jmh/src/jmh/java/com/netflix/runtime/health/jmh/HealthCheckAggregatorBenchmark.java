@@ -0,0 +1,101 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.jmh;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.netflix.runtime.health.api.HealthCheckStatus;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.IndicatorMatcher;
+import com.netflix.runtime.health.api.IndicatorMatchers;
+import com.netflix.runtime.health.core.SimpleHealthCheckAggregator;
+import com.netflix.runtime.health.core.caching.DefaultCachingHealthCheckAggregator;
+
+/**
+ * Measures a full fan-out of {@link SimpleHealthCheckAggregator}.check() (optionally with every indicator 
+ * wrapped by {@link DefaultCachingHealthCheckAggregator}), both from a single caller and from several 
+ * concurrent callers as happens when load balancer probes, Eureka heartbeats and the servlet overlap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HealthCheckAggregatorBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    int indicatorCount;
+
+    @Param({ "false", "true" })
+    boolean cached;
+
+    private SimpleHealthCheckAggregator aggregator;
+    private IndicatorMatcher matcher;
+
+    @Setup
+    public void setup() {
+        List<HealthIndicator> indicators = Indicators.healthy(indicatorCount);
+        if (cached) {
+            aggregator = new DefaultCachingHealthCheckAggregator(indicators, 1, TimeUnit.HOURS, 1, TimeUnit.SECONDS, null);
+        } else {
+            aggregator = new SimpleHealthCheckAggregator(indicators, 1, TimeUnit.SECONDS);
+        }
+        // suppress roughly one in ten indicators
+        String[] excluded = new String[Math.max(1, indicatorCount / 10)];
+        for (int i = 0; i < excluded.length; i++) {
+            excluded[i] = Indicators.name(i * 10);
+        }
+        matcher = IndicatorMatchers.excludes(excluded).build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        aggregator.close();
+    }
+
+    @Benchmark
+    public HealthCheckStatus check() throws Exception {
+        return aggregator.check().get();
+    }
+
+    @Benchmark
+    public HealthCheckStatus checkWithMatcher() throws Exception {
+        return aggregator.check(matcher).get();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public HealthCheckStatus concurrentCheck() throws Exception {
+        return aggregator.check().get();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public HealthCheckStatus concurrentCheckWithMatcher() throws Exception {
+        return aggregator.check(matcher).get();
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.IndicatorMatcher;
+import com.netflix.runtime.health.api.IndicatorMatchers;
+
+/**
+ * Measures {@link IndicatorMatcher}.matches(...) for matchers built through {@link IndicatorMatchers}
+ * with a growing number of include/exclude rules. {@link #buildAndMatch()} mirrors the Archaius-driven 
+ * filter, which builds a new matcher for every indicator it is asked about.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IndicatorMatchersBenchmark {
+
+    @Param({ "1", "10", "100" })
+    int ruleCount;
+
+    private String[] included;
+    private String[] excluded;
+    private IndicatorMatcher matcher;
+    private HealthIndicator first;
+    private HealthIndicator last;
+    private HealthIndicator unknown;
+
+    @Setup
+    public void setup() {
+        included = new String[ruleCount];
+        excluded = new String[ruleCount];
+        for (int i = 0; i < ruleCount; i++) {
+            included[i] = Indicators.name(i);
+            excluded[i] = Indicators.name(ruleCount + i);
+        }
+        matcher = IndicatorMatchers.includes(included).excludes(excluded).build();
+        first = new Indicators.NamedIndicator(included[0]);
+        last = new Indicators.NamedIndicator(included[ruleCount - 1]);
+        unknown = new Indicators.NamedIndicator("unknown");
+    }
+
+    @Benchmark
+    public boolean matchFirst() {
+        return matcher.matches(first);
+    }
+
+    @Benchmark
+    public boolean matchLast() {
+        return matcher.matches(last);
+    }
+
+    @Benchmark
+    public boolean matchUnknown() {
+        return matcher.matches(unknown);
+    }
+
+    @Benchmark
+    public boolean buildAndMatch() {
+        return IndicatorMatchers.includes(included).excludes(excluded).build().matches(last);
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.runtime.health.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.netflix.runtime.health.api.Health;
+import com.netflix.runtime.health.api.HealthIndicator;
+import com.netflix.runtime.health.api.HealthIndicatorCallback;
+
+/**
+ * Fixtures shared by the benchmarks in this package.
+ */
+final class Indicators {
+
+    private Indicators() {
+    }
+
+    /**
+     * Create {@code count} distinctly named indicators which respond immediately with a healthy status.
+     */
+    static List<HealthIndicator> healthy(int count) {
+        List<HealthIndicator> indicators = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            indicators.add(new NamedIndicator(name(i)));
+        }
+        return indicators;
+    }
+
+    static String name(int index) {
+        return "com.netflix.runtime.health.jmh.Indicator" + index;
+    }
+
+    static class NamedIndicator implements HealthIndicator {
+        private final String name;
+
+        NamedIndicator(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void check(HealthIndicatorCallback healthCallback) {
+            healthCallback.inform(Health.healthy().build());
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}